@@ -0,0 +1,200 @@
+package mobi.upod.timedurationpicker;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares JMH results in CSV format ({@code -rf csv}) with a baseline and fails if a benchmark regressed by more than a
+ * threshold.
+ *
+ * Absolute scores depend on the machine, so each score is taken relative to the geometric mean of the other benchmarks
+ * of the same class in the same file, e.g. the {@code char[]} formatting relative to the {@code String} formatting.
+ * Only these ratios are compared, which makes a baseline recorded on one machine usable on another one. A change that
+ * slows down all benchmarks of a class alike is not detected this way.
+ *
+ * Usage: {@code BenchmarkComparison <baseline.csv> <results.csv> [threshold]}, where the threshold is the tolerated
+ * relative regression, {@code 0.2} by default. Higher scores are better in throughput mode, lower scores in all other
+ * modes. Benchmarks missing in one of the files or without another benchmark of their class are reported but do not
+ * fail the comparison.
+ */
+public class BenchmarkComparison {
+    private static final double DEFAULT_THRESHOLD = 0.2;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BenchmarkComparison <baseline.csv> <results.csv> [threshold]");
+            System.exit(2);
+        }
+        final Map<String, Result> baseline = read(args[0]);
+        final Map<String, Result> results = read(args[1]);
+        final double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        int width = 0;
+        for (String name : baseline.keySet()) width = Math.max(width, name.length());
+        for (String name : results.keySet()) width = Math.max(width, name.length());
+        final String nameColumn = "%-" + width + "s";
+
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            final Result result = entry.getValue();
+            final Result base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println(String.format(nameColumn + " %12.3f %-8s no baseline", entry.getKey(), result.score, result.unit));
+                continue;
+            }
+            if (!base.unit.equals(result.unit)) {
+                System.out.println(String.format(nameColumn + " unit changed from %s to %s", entry.getKey(), base.unit, result.unit));
+                ++regressions;
+                continue;
+            }
+            if (countReferences(entry.getKey(), baseline, results) == 0) {
+                System.out.println(String.format(nameColumn + " %12.3f %12.3f %-8s no other benchmark of its class to compare with",
+                        entry.getKey(), base.score, result.score, result.unit));
+                continue;
+            }
+
+            // positive changes are improvements
+            final double relativeBase = base.goodness() - referenceGoodness(entry.getKey(), baseline, results, baseline);
+            final double relativeResult = result.goodness() - referenceGoodness(entry.getKey(), baseline, results, results);
+            final double change = Math.exp(relativeResult - relativeBase) - 1;
+            final boolean regressed = change < -threshold;
+            if (regressed) {
+                ++regressions;
+            }
+            System.out.println(String.format(nameColumn + " %12.3f %12.3f %-8s %+7.1f%%%s",
+                    entry.getKey(), base.score, result.score, result.unit, 100 * change, regressed ? "  REGRESSION" : ""));
+        }
+        for (String name : baseline.keySet()) {
+            if (!results.containsKey(name)) {
+                System.out.println(String.format(nameColumn + " not run", name));
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + Math.round(100 * threshold) + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Counts the other benchmarks of the same class that are contained in both files.
+     */
+    private static int countReferences(String name, Map<String, Result> baseline, Map<String, Result> results) {
+        int count = 0;
+        for (String other : results.keySet()) {
+            if (isReference(name, other, baseline, results)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the mean goodness of the other benchmarks of the same class that are contained in both files, which is the
+     * logarithm of their geometric mean score.
+     */
+    private static double referenceGoodness(String name, Map<String, Result> baseline, Map<String, Result> results, Map<String, Result> scores) {
+        double sum = 0;
+        int count = 0;
+        for (String other : results.keySet()) {
+            if (isReference(name, other, baseline, results)) {
+                sum += scores.get(other).goodness();
+                ++count;
+            }
+        }
+        return sum / count;
+    }
+
+    private static boolean isReference(String name, String other, Map<String, Result> baseline, Map<String, Result> results) {
+        final Result base = baseline.get(other);
+        final Result result = results.get(other);
+        return !other.equals(name) && classOf(other).equals(classOf(name))
+                && base != null && result != null && base.unit.equals(result.unit);
+    }
+
+    /**
+     * Gets the class of a benchmark from its name, e.g. {@code a.b.FormatBenchmark} for
+     * {@code a.b.FormatBenchmark.secondsChars (thrpt)}.
+     */
+    private static String classOf(String name) {
+        return name.substring(0, name.lastIndexOf('.', name.indexOf(' ')));
+    }
+
+    private static Map<String, Result> read(String fileName) throws IOException {
+        final Map<String, Result> results = new LinkedHashMap<String, Result>();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), Charset.forName("UTF-8")));
+        try {
+            final List<String> header = split(reader.readLine());
+            final int benchmark = header.indexOf("Benchmark");
+            final int mode = header.indexOf("Mode");
+            final int score = header.indexOf("Score");
+            final int unit = header.indexOf("Unit");
+            if (benchmark < 0 || mode < 0 || score < 0 || unit < 0)
+                throw new IOException("Not a JMH CSV file: " + fileName);
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.trim().isEmpty())
+                    continue;
+                final List<String> columns = split(line);
+                final String name = columns.get(benchmark);
+                // secondary results like gc profiler rows are reported as "benchmark:metric"
+                if (name.indexOf(':') >= 0)
+                    continue;
+                results.put(name + " (" + columns.get(mode) + ")",
+                        new Result(columns.get(mode), Double.parseDouble(columns.get(score)), columns.get(unit)));
+            }
+        } finally {
+            reader.close();
+        }
+        return results;
+    }
+
+    private static List<String> split(String line) {
+        final List<String> columns = new ArrayList<String>();
+        final StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); ++i) {
+            final char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+
+    private static class Result {
+        final String mode;
+        final double score;
+        final String unit;
+
+        Result(String mode, double score, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+
+        boolean higherIsBetter() {
+            return mode.equals("thrpt");
+        }
+
+        /**
+         * Gets the logarithm of the score, negated if lower scores are better, so that higher values are always better
+         * and ratios become differences.
+         */
+        double goodness() {
+            return higherIsBetter() ? Math.log(score) : -Math.log(score);
+        }
+    }
+}
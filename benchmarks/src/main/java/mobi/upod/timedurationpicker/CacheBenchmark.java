@@ -0,0 +1,72 @@
+package mobi.upod.timedurationpicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link TimeDurationFormatCache} for a working set that fits into the cache, one that is four times as large
+ * as the cache and, for comparison, formatting without a cache. Scores are given in formatted values per microsecond.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheBenchmark {
+    private static final int COUNT = 1024;
+
+    private final long[] durations = new long[COUNT];
+    private final TimeDurationFormatCache cache = new TimeDurationFormatCache();
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        for (int i = 0; i < COUNT; ++i) {
+            durations[i] = random.nextInt(4 * TimeDurationFormatCache.DEFAULT_CAPACITY) * 1000L;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int hits() {
+        int length = 0;
+        for (long duration : durations) {
+            // maps the durations to as many distinct values as the cache holds
+            length += cache.format(duration % (TimeDurationFormatCache.DEFAULT_CAPACITY * 1000L), TimeDurationUtil.FORMAT_MINUTES_SECONDS).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int mixed() {
+        int length = 0;
+        for (long duration : durations) {
+            length += cache.format(duration, TimeDurationUtil.FORMAT_MINUTES_SECONDS).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int uncached() {
+        int length = 0;
+        for (long duration : durations) {
+            length += TimeDurationUtil.format(duration, TimeDurationUtil.FORMAT_MINUTES_SECONDS).length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,84 @@
+package mobi.upod.timedurationpicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decomposition of durations into hours, minutes and seconds using the single field accessors of
+ * {@link TimeDurationUtil}, a single pass into {@link TimeDurationFields}, the bulk variant and {@link PackedDuration}.
+ * Scores are given in decomposed durations per microsecond.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecomposeBenchmark {
+    private static final int COUNT = 1024;
+
+    private final long[] durations = new long[COUNT];
+    private final TimeDurationFields fields = new TimeDurationFields();
+    private final int[] hours = new int[COUNT];
+    private final int[] minutes = new int[COUNT];
+    private final int[] seconds = new int[COUNT];
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        for (int i = 0; i < COUNT; ++i) {
+            durations[i] = random.nextInt(100 * 3600 * 1000);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long fieldAccessors() {
+        long sum = 0;
+        for (long duration : durations) {
+            sum += TimeDurationUtil.hoursOf(duration) + TimeDurationUtil.minutesInHourOf(duration) + TimeDurationUtil.secondsInMinuteOf(duration);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long singlePass() {
+        long sum = 0;
+        for (long duration : durations) {
+            TimeDurationUtil.decompose(duration, fields);
+            sum += fields.hours + fields.minutes + fields.seconds;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int bulk() {
+        TimeDurationUtil.decompose(durations, 0, COUNT, hours, minutes, seconds, 0);
+        return hours[COUNT - 1] + minutes[COUNT - 1] + seconds[COUNT - 1];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long packed() {
+        long sum = 0;
+        for (long duration : durations) {
+            final long packed = PackedDuration.fromMillis(duration);
+            sum += PackedDuration.hoursOf(packed) + PackedDuration.minutesOf(packed) + PackedDuration.secondsOf(packed);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,113 @@
+package mobi.upod.timedurationpicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@code String.format} based format methods of {@link TimeDurationUtil} with the overloads writing to a
+ * {@code StringBuilder} or {@code char[]}. Scores are given in formatted values per microsecond.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+    private static final int COUNT = 1024;
+
+    private final long[] durations = new long[COUNT];
+    private final StringBuilder builder = new StringBuilder(32);
+    private final char[] buffer = new char[32];
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        for (int i = 0; i < COUNT; ++i) {
+            durations[i] = random.nextInt(100 * 3600 * 1000);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int hoursMinutesSecondsString() {
+        int length = 0;
+        for (long duration : durations) {
+            length += TimeDurationUtil.formatHoursMinutesSeconds(duration).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int hoursMinutesSecondsBuilder() {
+        int length = 0;
+        for (long duration : durations) {
+            builder.setLength(0);
+            length += TimeDurationUtil.formatHoursMinutesSeconds(duration, builder).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int hoursMinutesSecondsChars() {
+        int length = 0;
+        for (long duration : durations) {
+            length += TimeDurationUtil.formatHoursMinutesSeconds(duration, buffer, 0);
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int minutesSecondsString() {
+        int length = 0;
+        for (long duration : durations) {
+            length += TimeDurationUtil.formatMinutesSeconds(duration).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int minutesSecondsChars() {
+        int length = 0;
+        for (long duration : durations) {
+            length += TimeDurationUtil.formatMinutesSeconds(duration, buffer, 0);
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int secondsString() {
+        int length = 0;
+        for (long duration : durations) {
+            length += TimeDurationUtil.formatSeconds(duration).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int secondsChars() {
+        int length = 0;
+        for (long duration : durations) {
+            length += TimeDurationUtil.formatSeconds(duration, buffer, 0);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,74 @@
+package mobi.upod.timedurationpicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the input model the picker is built on: typing a full duration digit by digit, deleting it again and
+ * setting a duration, each followed by reading the duration and the field digits like the picker does after each
+ * change. Scores are given in operations per microsecond.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InputBenchmark {
+    private static final String DIGITS = "123456";
+
+    private final TimeDurationInput input = new TimeDurationInput(TimeUnitLayout.HOURS_MINUTES_SECONDS);
+    private char[][] fieldDigits;
+    private long duration = 0;
+
+    @Setup
+    public void setUp() {
+        input.clear();
+        // one buffer per field holding its last rendered digits, like the picker's text fields
+        final TimeUnitLayout layout = input.getTimeUnitLayout();
+        fieldDigits = new char[layout.getFieldCount()][];
+        for (int field = 0; field < fieldDigits.length; ++field) {
+            fieldDigits[field] = new char[layout.getWidth(field)];
+        }
+    }
+
+    @Benchmark
+    public long pushPopCycle() {
+        long sum = 0;
+        for (int i = 0; i < DIGITS.length(); ++i) {
+            input.pushDigit(DIGITS.charAt(i));
+            sum += render();
+        }
+        for (int i = 0; i < DIGITS.length(); ++i) {
+            input.popDigit();
+            sum += render();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long setDuration() {
+        duration = (duration + 1001) % (100 * TimeDurationUtil.MILLIS_PER_HOUR);
+        input.setDuration(duration);
+        return render();
+    }
+
+    private long render() {
+        int changed = 0;
+        for (int field = 0; field < fieldDigits.length; ++field) {
+            if (input.getFieldDigits(field, fieldDigits[field]))
+                ++changed;
+        }
+        return input.getDuration() + changed;
+    }
+}
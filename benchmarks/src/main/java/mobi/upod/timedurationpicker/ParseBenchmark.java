@@ -0,0 +1,109 @@
+package mobi.upod.timedurationpicker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link TimeDurationUtil#parseDuration(CharSequence)} and its overloads. Scores are given
+ * in parsed values per microsecond, which equals millions of values per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+    private static final int COUNT = 1024;
+
+    private final String[] clockTexts = new String[COUNT];
+    private final String[] unitTexts = new String[COUNT];
+    private final String[] isoTexts = new String[COUNT];
+    private char[] clockChars;
+    private ByteBuffer clockBytes;
+    private final int[] clockOffsets = new int[COUNT + 1];
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final StringBuilder allClockTexts = new StringBuilder();
+        for (int i = 0; i < COUNT; ++i) {
+            final long duration = random.nextInt(100 * 3600) * 1000L;
+            final int hours = TimeDurationUtil.hoursOf(duration);
+            final int minutes = TimeDurationUtil.minutesInHourOf(duration);
+            final int seconds = TimeDurationUtil.secondsInMinuteOf(duration);
+            clockTexts[i] = TimeDurationUtil.formatHoursMinutesSeconds(duration, new StringBuilder()).toString();
+            unitTexts[i] = hours + "h" + minutes + "m" + seconds + "s";
+            isoTexts[i] = "PT" + hours + "H" + minutes + "M" + seconds + "S";
+            clockOffsets[i] = allClockTexts.length();
+            allClockTexts.append(clockTexts[i]);
+        }
+        clockOffsets[COUNT] = allClockTexts.length();
+        clockChars = allClockTexts.toString().toCharArray();
+        clockBytes = ByteBuffer.wrap(allClockTexts.toString().getBytes(Charset.forName("US-ASCII")));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseClock() {
+        long sum = 0;
+        for (String text : clockTexts) {
+            sum += TimeDurationUtil.parseDuration(text);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseClockChars() {
+        long sum = 0;
+        for (int i = 0; i < COUNT; ++i) {
+            sum += TimeDurationUtil.parseDuration(clockChars, clockOffsets[i], clockOffsets[i + 1] - clockOffsets[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseClockBytes() {
+        long sum = 0;
+        for (int i = 0; i < COUNT; ++i) {
+            sum += TimeDurationUtil.parseDuration(clockBytes, clockOffsets[i], clockOffsets[i + 1] - clockOffsets[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseUnits() {
+        long sum = 0;
+        for (String text : unitTexts) {
+            sum += TimeDurationUtil.parseDuration(text);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long parseIso() {
+        long sum = 0;
+        for (String text : isoTexts) {
+            sum += TimeDurationUtil.parseDuration(text);
+        }
+        return sum;
+    }
+}
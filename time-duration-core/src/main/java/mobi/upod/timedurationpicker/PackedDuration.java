@@ -0,0 +1,218 @@
+package mobi.upod.timedurationpicker;
+
+/**
+ * Static helpers for durations that are packed into a single {@code long} holding the hours, minutes, seconds and
+ * milliseconds as separate bit fields.
+ *
+ * A packed duration carries its decomposed fields around without any object allocation, so reading a single field
+ * does not require any division. The fields are laid out from the most to the least significant bits as
+ * hours (42 bits), minutes (6 bits), seconds (6 bits) and milliseconds (10 bits), which means that packed durations
+ * compare exactly like the durations they represent. Although the hours field could hold more, {@link #MAX_HOURS} is
+ * clamped to {@code Integer.MAX_VALUE}, so that the hours fit into {@link TimeDurationFields#hours}. Only non negative
+ * durations of up to that many hours can be packed; the sign bit is always clear.
+ *
+ * @see TimeDurationUtil
+ */
+public final class PackedDuration {
+    /** The packed representation of a zero duration. */
+    public static final long ZERO = 0;
+    /** The largest number of hours that can be packed. */
+    public static final long MAX_HOURS = Integer.MAX_VALUE;
+
+    private static final int MILLIS_SHIFT = 0;
+    private static final int SECONDS_SHIFT = 10;
+    private static final int MINUTES_SHIFT = 16;
+    private static final int HOURS_SHIFT = 22;
+    private static final long MILLIS_MASK = (1L << SECONDS_SHIFT) - 1;
+    private static final long SECONDS_MASK = (1L << (MINUTES_SHIFT - SECONDS_SHIFT)) - 1;
+    private static final long MINUTES_MASK = (1L << (HOURS_SHIFT - MINUTES_SHIFT)) - 1;
+
+    /** The packed representation of the longest duration that can be packed, {@link #MAX_HOURS} hours and 59:59.999. */
+    public static final long MAX =
+            (MAX_HOURS << HOURS_SHIFT) | (59L << MINUTES_SHIFT) | (59L << SECONDS_SHIFT) | (999L << MILLIS_SHIFT);
+
+    private PackedDuration() {
+    }
+
+    /**
+     * Packs the specified fields.
+     * @param hours full hours of the duration, between {@code 0} and {@link #MAX_HOURS}
+     * @param minutes minutes excluding full hours, between {@code 0} and {@code 59}
+     * @param seconds seconds excluding full minutes, between {@code 0} and {@code 59}
+     * @param millis milliseconds excluding full seconds, between {@code 0} and {@code 999}
+     * @return the packed duration.
+     * @throws IllegalArgumentException if one of the fields is out of range.
+     */
+    public static long pack(long hours, int minutes, int seconds, int millis) {
+        if (hours < 0 || hours > MAX_HOURS || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59 || millis < 0 || millis > 999)
+            throw new IllegalArgumentException("Duration fields out of range: " + hours + "h " + minutes + "m " + seconds + "s " + millis + "ms");
+        return packUnchecked(hours, minutes, seconds, millis);
+    }
+
+    /**
+     * Packs the specified duration.
+     * @param duration duration in milliseconds
+     * @return the packed duration.
+     * @throws IllegalArgumentException if the duration is negative or exceeds {@link #MAX_HOURS}.
+     */
+    public static long fromMillis(long duration) {
+        if (duration < 0)
+            throw new IllegalArgumentException("Negative durations cannot be packed: " + duration);
+        final long hours = duration / TimeDurationUtil.MILLIS_PER_HOUR;
+        if (hours > MAX_HOURS)
+            throw new IllegalArgumentException("Duration too large to be packed: " + duration);
+        long remainder = duration - hours * TimeDurationUtil.MILLIS_PER_HOUR;
+        final long minutes = remainder / TimeDurationUtil.MILLIS_PER_MINUTE;
+        remainder -= minutes * TimeDurationUtil.MILLIS_PER_MINUTE;
+        final long seconds = remainder / TimeDurationUtil.MILLIS_PER_SECOND;
+        return packUnchecked(hours, (int) minutes, (int) seconds, (int) (remainder - seconds * TimeDurationUtil.MILLIS_PER_SECOND));
+    }
+
+    /**
+     * Packs the specified duration like {@link #fromMillis(long)}, but clamps durations exceeding {@link #MAX_HOURS} to
+     * {@link #MAX} instead of rejecting them, just like the input saturates durations that do not fit its fields.
+     * @param duration duration in milliseconds
+     * @return the packed duration.
+     * @throws IllegalArgumentException if the duration is negative.
+     */
+    public static long fromMillisClamped(long duration) {
+        if (duration < 0)
+            throw new IllegalArgumentException("Negative durations cannot be packed: " + duration);
+        return duration / TimeDurationUtil.MILLIS_PER_HOUR > MAX_HOURS ? MAX : fromMillis(duration);
+    }
+
+    /**
+     * Unpacks the specified duration.
+     * @param packed packed duration
+     * @return duration in milliseconds.
+     */
+    public static long toMillis(long packed) {
+        return hoursOf(packed) * TimeDurationUtil.MILLIS_PER_HOUR
+                + minutesOf(packed) * TimeDurationUtil.MILLIS_PER_MINUTE
+                + secondsOf(packed) * TimeDurationUtil.MILLIS_PER_SECOND
+                + millisOf(packed);
+    }
+
+    /**
+     * Writes the fields of the specified duration to a holder.
+     * @param packed packed duration
+     * @param fields the holder to write the fields to
+     * @return the specified holder.
+     */
+    public static TimeDurationFields unpack(long packed, TimeDurationFields fields) {
+        fields.hours = (int) hoursOf(packed);
+        fields.minutes = minutesOf(packed);
+        fields.seconds = secondsOf(packed);
+        fields.millis = millisOf(packed);
+        return fields;
+    }
+
+    /**
+     * Gets the full hours of the specified duration.
+     * @param packed packed duration
+     * @return number of hours.
+     */
+    public static long hoursOf(long packed) {
+        return packed >>> HOURS_SHIFT;
+    }
+
+    /**
+     * Gets the minutes of the specified duration excluding full hours.
+     * @param packed packed duration
+     * @return number of minutes.
+     */
+    public static int minutesOf(long packed) {
+        return (int) ((packed >>> MINUTES_SHIFT) & MINUTES_MASK);
+    }
+
+    /**
+     * Gets the seconds of the specified duration excluding full minutes.
+     * @param packed packed duration
+     * @return number of seconds.
+     */
+    public static int secondsOf(long packed) {
+        return (int) ((packed >>> SECONDS_SHIFT) & SECONDS_MASK);
+    }
+
+    /**
+     * Gets the milliseconds of the specified duration excluding full seconds.
+     * @param packed packed duration
+     * @return number of milliseconds.
+     */
+    public static int millisOf(long packed) {
+        return (int) ((packed >>> MILLIS_SHIFT) & MILLIS_MASK);
+    }
+
+    /**
+     * Adds two packed durations.
+     * @param a packed duration
+     * @param b packed duration
+     * @return the packed sum.
+     * @throws IllegalArgumentException if the sum exceeds {@link #MAX_HOURS}.
+     */
+    public static long add(long a, long b) {
+        int millis = millisOf(a) + millisOf(b);
+        int seconds = secondsOf(a) + secondsOf(b);
+        int minutes = minutesOf(a) + minutesOf(b);
+        long hours = hoursOf(a) + hoursOf(b);
+        if (millis > 999) {
+            millis -= 1000;
+            ++seconds;
+        }
+        if (seconds > 59) {
+            seconds -= 60;
+            ++minutes;
+        }
+        if (minutes > 59) {
+            minutes -= 60;
+            ++hours;
+        }
+        if (hours > MAX_HOURS)
+            throw new IllegalArgumentException("Duration sum too large");
+        return packUnchecked(hours, minutes, seconds, millis);
+    }
+
+    /**
+     * Subtracts one packed duration from another.
+     * @param a packed duration
+     * @param b packed duration to be subtracted, must not be larger than {@code a}
+     * @return the packed difference.
+     * @throws IllegalArgumentException if {@code b} is larger than {@code a}.
+     */
+    public static long subtract(long a, long b) {
+        if (compare(a, b) < 0)
+            throw new IllegalArgumentException("Duration difference would be negative");
+        int millis = millisOf(a) - millisOf(b);
+        int seconds = secondsOf(a) - secondsOf(b);
+        int minutes = minutesOf(a) - minutesOf(b);
+        long hours = hoursOf(a) - hoursOf(b);
+        if (millis < 0) {
+            millis += 1000;
+            --seconds;
+        }
+        if (seconds < 0) {
+            seconds += 60;
+            --minutes;
+        }
+        if (minutes < 0) {
+            minutes += 60;
+            --hours;
+        }
+        return packUnchecked(hours, minutes, seconds, millis);
+    }
+
+    /**
+     * Compares two packed durations.
+     * @param a packed duration
+     * @param b packed duration
+     * @return a negative value if {@code a} is shorter than {@code b}, a positive value if it is longer and {@code 0}
+     * if both are equal.
+     */
+    public static int compare(long a, long b) {
+        return a < b ? -1 : (a == b ? 0 : 1);
+    }
+
+    private static long packUnchecked(long hours, int minutes, int seconds, int millis) {
+        return (hours << HOURS_SHIFT) | ((long) minutes << MINUTES_SHIFT) | ((long) seconds << SECONDS_SHIFT) | ((long) millis << MILLIS_SHIFT);
+    }
+}
@@ -0,0 +1,92 @@
+package mobi.upod.timedurationpicker;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bulk conversions of {@link TimeDurationUtil} that split very large arrays across all cores using fork/join.
+ *
+ * Fork/join is part of Java 7, but Android only provides it since Lollipop, so apps supporting older devices must
+ * check the API level before using this class. For arrays below {@link #PARALLEL_THRESHOLD} durations the work is done
+ * on the calling thread, as splitting it would cost more than it saves.
+ */
+public final class ParallelTimeDurationUtil {
+    /** The number of durations below which a range is not split any further. */
+    public static final int PARALLEL_THRESHOLD = 16 * 1024;
+
+    private ParallelTimeDurationUtil() {
+    }
+
+    /**
+     * Does the same as {@link TimeDurationUtil#decompose(long[], int, int, int[], int[], int[], int)}, but splits large
+     * ranges into chunks that are processed in parallel. Returns when all chunks are done.
+     * @throws IndexOutOfBoundsException if one of the ranges exceeds its array.
+     */
+    public static void decompose(long[] durations, int offset, int length, int[] hours, int[] minutes, int[] seconds,
+                                 int outOffset) {
+        TimeDurationUtil.checkRange(offset, length, durations.length);
+        TimeDurationUtil.checkRange(outOffset, length, hours.length);
+        TimeDurationUtil.checkRange(outOffset, length, minutes.length);
+        TimeDurationUtil.checkRange(outOffset, length, seconds.length);
+        if (length < PARALLEL_THRESHOLD) {
+            TimeDurationUtil.decompose(durations, offset, length, hours, minutes, seconds, outOffset);
+        } else {
+            PoolHolder.POOL.invoke(new DecomposeAction(durations, offset, length, hours, minutes, seconds, outOffset));
+        }
+    }
+
+    /**
+     * Creates the pool on first use only. {@code ForkJoinPool.commonPool()} needs Java 8 and Android Nougat, while this
+     * module targets Java 7 and Lollipop, so the class keeps a pool of its own. Its threads are daemon threads, so that
+     * the pool, which is never shut down, does not keep the JVM alive.
+     */
+    private static class PoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                    @Override
+                    public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                        final ForkJoinWorkerThread thread =
+                                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, null, false);
+    }
+
+    private static class DecomposeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] durations;
+        private final int offset;
+        private final int length;
+        private final int[] hours;
+        private final int[] minutes;
+        private final int[] seconds;
+        private final int outOffset;
+
+        DecomposeAction(long[] durations, int offset, int length, int[] hours, int[] minutes, int[] seconds,
+                        int outOffset) {
+            this.durations = durations;
+            this.offset = offset;
+            this.length = length;
+            this.hours = hours;
+            this.minutes = minutes;
+            this.seconds = seconds;
+            this.outOffset = outOffset;
+        }
+
+        @Override
+        protected void compute() {
+            if (length < PARALLEL_THRESHOLD) {
+                TimeDurationUtil.decompose(durations, offset, length, hours, minutes, seconds, outOffset);
+            } else {
+                final int half = length / 2;
+                invokeAll(
+                        new DecomposeAction(durations, offset, half, hours, minutes, seconds, outOffset),
+                        new DecomposeAction(durations, offset + half, length - half, hours, minutes, seconds,
+                                outOffset + half));
+            }
+        }
+    }
+}
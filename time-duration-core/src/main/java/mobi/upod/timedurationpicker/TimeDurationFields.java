@@ -0,0 +1,39 @@
+package mobi.upod.timedurationpicker;
+
+/**
+ * Mutable holder for the hours, minutes, seconds and milliseconds of a duration.
+ *
+ * Use {@link TimeDurationUtil#decompose(long, TimeDurationFields)} to fill it. An instance can be reused for any number
+ * of decompositions, which makes it suitable for code running on every frame.
+ */
+public class TimeDurationFields {
+    /** Full hours of the duration. */
+    public int hours;
+    /** Minutes of the duration excluding full hours. */
+    public int minutes;
+    /** Seconds of the duration excluding full minutes. */
+    public int seconds;
+    /** Milliseconds of the duration excluding full seconds. */
+    public int millis;
+
+    /**
+     * Calculates the full number of minutes including those of the full hours.
+     * @return the total number of minutes.
+     */
+    public long totalMinutes() {
+        return hours * 60L + minutes;
+    }
+
+    /**
+     * Calculates the duration represented by the fields.
+     * @return duration in milliseconds.
+     */
+    public long toMillis() {
+        return TimeDurationUtil.durationOf(hours, minutes, seconds) + millis;
+    }
+
+    @Override
+    public String toString() {
+        return hours + "h " + minutes + "m " + seconds + "s " + millis + "ms";
+    }
+}
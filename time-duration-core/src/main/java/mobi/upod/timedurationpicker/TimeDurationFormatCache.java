@@ -0,0 +1,184 @@
+package mobi.upod.timedurationpicker;
+
+import java.util.Arrays;
+
+/**
+ * A bounded cache of formatted durations, which avoids formatting the same small set of durations (like 5 minutes or
+ * 1 hour) over and over again.
+ *
+ * Entries are keyed by the duration and one of the {@code TimeDurationUtil.FORMAT_*} constants without boxing them.
+ * When the cache is full, the entry to replace is chosen using the CLOCK algorithm: every entry has a reference bit that
+ * is set when the entry is used, and a hand sweeps over the entries clearing these bits until it finds an entry that
+ * has not been used since the last sweep. This approximates LRU without reordering anything on a hit.
+ *
+ * All methods are thread safe.
+ */
+public class TimeDurationFormatCache {
+    /** The capacity used by {@link #TimeDurationFormatCache()}. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final int NO_ENTRY = -1;
+
+    private final int capacity;
+    // entries
+    private final long[] durations;
+    private final int[] formats;
+    private final String[] strings;
+    private final boolean[] referenced;
+    private int size = 0;
+    private int hand = 0;
+    // open addressing hash table with linear probing, holding entry indices
+    private final int[] table;
+    private final int tableShift;
+    // statistics
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    /**
+     * Creates a cache with the {@link #DEFAULT_CAPACITY}.
+     */
+    public TimeDurationFormatCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache.
+     * @param capacity the maximum number of formatted durations to keep
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public TimeDurationFormatCache(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 28)
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+
+        this.capacity = capacity;
+        durations = new long[capacity];
+        formats = new int[capacity];
+        strings = new String[capacity];
+        referenced = new boolean[capacity];
+
+        // keep the load factor at or below one half
+        int tableSize = 2;
+        while (tableSize < 2 * capacity)
+            tableSize *= 2;
+        table = new int[tableSize];
+        Arrays.fill(table, NO_ENTRY);
+        tableShift = 64 - Integer.numberOfTrailingZeros(tableSize);
+    }
+
+    /**
+     * Gets the formatted duration from the cache or formats and caches it if it is not cached yet.
+     * @param duration duration in milliseconds
+     * @param format one of the {@code TimeDurationUtil.FORMAT_*} constants
+     * @return string representation of the duration.
+     * @throws IllegalArgumentException if the format is unknown.
+     */
+    public synchronized String format(long duration, int format) {
+        int slot = slotOf(duration, format);
+        for (int entry = table[slot]; entry != NO_ENTRY; entry = table[slot]) {
+            if (durations[entry] == duration && formats[entry] == format) {
+                ++hitCount;
+                referenced[entry] = true;
+                return strings[entry];
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+
+        ++missCount;
+        final String string = TimeDurationUtil.format(duration, format);
+        final int entry;
+        if (size < capacity) {
+            entry = size++;
+        } else {
+            entry = evict();
+            // the removal may have moved entries, so the free slot has to be searched again
+            slot = slotOf(duration, format);
+            while (table[slot] != NO_ENTRY)
+                slot = (slot + 1) & (table.length - 1);
+        }
+        durations[entry] = duration;
+        formats[entry] = format;
+        strings[entry] = string;
+        referenced[entry] = false;
+        table[slot] = entry;
+        return string;
+    }
+
+    /**
+     * Removes all entries. The statistics are kept.
+     */
+    public synchronized void clear() {
+        Arrays.fill(table, NO_ENTRY);
+        Arrays.fill(strings, null);
+        size = 0;
+        hand = 0;
+    }
+
+    /**
+     * Gets the number of calls to {@link #format(long, int)} that found the formatted duration in the cache.
+     * @return the number of cache hits.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of calls to {@link #format(long, int)} that had to format the duration.
+     * @return the number of cache misses.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of formatted durations currently cached.
+     * @return the number of entries.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of formatted durations kept.
+     * @return the capacity of this cache.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private int slotOf(long duration, int format) {
+        final long hash = (duration * 31 + format) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> tableShift);
+    }
+
+    /**
+     * Selects an entry to be replaced using the CLOCK algorithm and removes it from the hash table.
+     * @return the index of the free entry.
+     */
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = hand + 1 == capacity ? 0 : hand + 1;
+        }
+        final int entry = hand;
+        hand = hand + 1 == capacity ? 0 : hand + 1;
+
+        // find the slot of the entry and delete it by moving later entries of the same probe sequence backwards
+        final int mask = table.length - 1;
+        int slot = slotOf(durations[entry], formats[entry]);
+        while (table[slot] != entry)
+            slot = (slot + 1) & mask;
+        int next = (slot + 1) & mask;
+        while (table[next] != NO_ENTRY) {
+            final int home = slotOf(durations[table[next]], formats[table[next]]);
+            // move the entry if its home slot is not within (slot, next]
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                table[slot] = table[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[slot] = NO_ENTRY;
+        strings[entry] = null;
+        return entry;
+    }
+}
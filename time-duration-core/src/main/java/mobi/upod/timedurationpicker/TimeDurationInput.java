@@ -0,0 +1,375 @@
+package mobi.upod.timedurationpicker;
+
+/**
+ * The digit input logic of a duration picker without any user interface: digits are pushed from the right and shift
+ * the already entered digits through the fields of a {@link TimeUnitLayout}, like known from the Lollipop stock timer
+ * app. For example entering {@code 1}, {@code 3} and {@code 0} in the {@code h:mm:ss} layout results in
+ * {@code 0:01:30}.
+ *
+ * The entered digits are kept in a fixed size ring buffer, so that pushing, popping and clearing digits is done in
+ * constant time without shifting or allocating anything. Digits that have not been entered are implicitly zero.
+ * Additionally the numeric value of each field is maintained arithmetically on every push and pop, so that the
+ * duration can be read without parsing the digits.
+ *
+ * This class is not thread safe.
+ */
+public class TimeDurationInput {
+    private static final int CAPACITY = TimeUnitLayout.MAX_DIGITS;
+    private static final int MAX_FIELDS = TimeDurationUnit.values().length;
+
+    private TimeUnitLayout layout = TimeUnitLayout.HOURS_MINUTES_SECONDS;
+    private OnInputChangedListener changeListener = null;
+    private int maxDigits = CAPACITY;
+    private long duration = 0;
+    private final char[] digits = new char[CAPACITY];
+    /** Index of the least significant (most recently pushed) digit within {@link #digits}. */
+    private int head = CAPACITY - 1;
+    /** Number of significant digits entered (leading zeros are never stored). */
+    private int length = 0;
+
+    // the current time unit layout, flattened into arrays indexed by field, so that no per unit branching is
+    // required while typing
+    private int fieldCount = 0;
+    private final long[] unitMillis = new long[MAX_FIELDS];
+    private final long[] radixes = new long[MAX_FIELDS];
+    /** Position of the first digit of each field. */
+    private final int[] offsets = new int[MAX_FIELDS];
+    /** {@code 10^width} of each field. */
+    private final int[] limits = new int[MAX_FIELDS];
+    private final int[] values = new int[MAX_FIELDS];
+
+    /**
+     * Implement this interface and set it using {@link #setOnInputChangedListener(OnInputChangedListener)} to get
+     * informed about input changes.
+     */
+    public interface OnInputChangedListener {
+        /**
+         * Called once after each call to one of the input methods ({@link #pushDigit(char)},
+         * {@link #pushNumber(CharSequence)}, {@link #popDigit()}, {@link #clear()} or one of the {@code setDuration}
+         * methods), even if the input did not change. Changing the layout and restoring a state are not reported, as
+         * the owner of the input initiates these and updates itself anyway.
+         * @param input the input that changed
+         */
+        void onInputChanged(TimeDurationInput input);
+    }
+
+    /**
+     * Creates an empty input with the {@code h:mm:ss} layout.
+     */
+    public TimeDurationInput() {
+        applyTimeUnitLayout(layout);
+    }
+
+    /**
+     * Creates an empty input.
+     * @param layout the fields to enter
+     */
+    public TimeDurationInput(TimeUnitLayout layout) {
+        this.layout = layout;
+        applyTimeUnitLayout(layout);
+    }
+
+    //
+    // configuration
+    //
+
+    /**
+     * Sets a listener to be informed about input changes.
+     * @param listener the listener to be informed or {@code null} if no one should be informed.
+     */
+    public void setOnInputChangedListener(OnInputChangedListener listener) {
+        changeListener = listener;
+    }
+
+    /**
+     * Gets the fields currently entered.
+     * @return the units and the number of digits of each field.
+     */
+    public TimeUnitLayout getTimeUnitLayout() {
+        return layout;
+    }
+
+    /**
+     * Sets the fields to enter. The input is reset to the duration last set using one of the {@code setDuration}
+     * methods.
+     * @param layout the units and the number of digits of each field
+     */
+    public void setTimeUnitLayout(TimeUnitLayout layout) {
+        if (layout == null)
+            throw new NullPointerException("layout");
+        this.layout = layout;
+        applyTimeUnitLayout(layout);
+        applyDuration(duration);
+    }
+
+    private void applyTimeUnitLayout(TimeUnitLayout layout) {
+        fieldCount = layout.getFieldCount();
+        int offset = 0;
+        for (int i = 0; i < fieldCount; ++i) {
+            unitMillis[i] = layout.getUnit(i).getMillis();
+            radixes[i] = layout.getRadix(i);
+            offsets[i] = offset;
+            limits[i] = 1;
+            for (int width = 0; width < layout.getWidth(i); ++width)
+                limits[i] *= 10;
+            offset += layout.getWidth(i);
+        }
+        maxDigits = offset;
+    }
+
+    //
+    // state
+    //
+
+    /**
+     * Restores a state previously read by {@link #getBaseDuration()}, {@link #getDigits()} and
+     * {@link #getDigitCount()} directly without replaying the input.
+     * @param layout the layout the state was read with
+     * @param baseDuration the duration last set
+     * @param digitValue the entered digits as a single number
+     * @param digitCount the number of significant digits entered
+     * @throws IllegalArgumentException if the digits do not match the digit count or the layout.
+     */
+    public void restore(TimeUnitLayout layout, long baseDuration, long digitValue, int digitCount) {
+        long limit = 1;
+        for (int i = 0; i < digitCount; ++i)
+            limit *= 10;
+        if (digitCount < 0 || digitCount > layout.getDigitCount() || digitValue < limit / 10 || digitValue >= limit)
+            throw new IllegalArgumentException("Invalid input state: " + digitCount + " digits of value " + digitValue);
+        if (baseDuration < 0)
+            throw new IllegalArgumentException("Invalid input state: negative base duration " + baseDuration);
+
+        this.layout = layout;
+        applyTimeUnitLayout(layout);
+        duration = baseDuration;
+        length = digitCount;
+        head = digitCount > 0 ? digitCount - 1 : CAPACITY - 1;
+        long remainder = digitValue;
+        for (int i = digitCount - 1; i >= 0; --i) {
+            digits[i] = (char) ('0' + remainder % 10);
+            remainder /= 10;
+        }
+
+        remainder = digitValue;
+        for (int i = fieldCount - 1; i >= 0; --i) {
+            values[i] = (int) (remainder % limits[i]);
+            remainder /= limits[i];
+        }
+    }
+
+    /**
+     * Gets the duration last set, which is used as the starting point when the layout changes.
+     * @return the duration last set in milliseconds.
+     */
+    public long getBaseDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the entered digits as a single number, e.g. {@code 130} for an input of {@code 1:30}.
+     * @return the entered digits.
+     */
+    public long getDigits() {
+        long value = 0;
+        for (int i = 0; i < fieldCount; ++i)
+            value = value * limits[i] + values[i];
+        return value;
+    }
+
+    /**
+     * Gets the number of significant digits entered.
+     * @return the number of digits entered.
+     */
+    public int getDigitCount() {
+        return length;
+    }
+
+    //
+    // input
+    //
+
+    /**
+     * Pushes all digits of the specified number one after another.
+     * @param digits the digits to push
+     * @throws IllegalArgumentException if the number contains something else than digits.
+     */
+    public void pushNumber(final CharSequence digits) {
+        for (int i = 0; i < digits.length(); ++i)
+            applyDigit(digits.charAt(i));
+        notifyInputChanged();
+    }
+
+    /**
+     * Pushes a digit as the least significant one, if there is room for it. Leading zeros are ignored.
+     * @param digit the digit to push
+     * @throws IllegalArgumentException if the character is no digit.
+     */
+    public void pushDigit(final char digit) {
+        applyDigit(digit);
+        notifyInputChanged();
+    }
+
+    /**
+     * Removes the least significant digit, if any.
+     */
+    public void popDigit() {
+        if (length > 0) {
+            head = head == 0 ? CAPACITY - 1 : head - 1;
+            --length;
+            shiftRight();
+        }
+        notifyInputChanged();
+    }
+
+    /**
+     * Removes all digits.
+     */
+    public void clear() {
+        applyClear();
+        notifyInputChanged();
+    }
+
+    /**
+     * Writes the digits of a field to the specified buffer.
+     * @param field index of the field within the current layout
+     * @param target buffer with the width of the field
+     * @return whether the content of the buffer changed.
+     */
+    public boolean getFieldDigits(int field, char[] target) {
+        return copyDigits(offsets[field], target);
+    }
+
+    /**
+     * Gets the entered duration.
+     * @return the duration in milliseconds.
+     */
+    public long getDuration() {
+        long millis = 0;
+        for (int i = 0; i < fieldCount; ++i)
+            millis += values[i] * unitMillis[i];
+        return millis;
+    }
+
+    /**
+     * Sets the input to the specified duration. The first field takes all larger units; if it does not fit, the input
+     * is set to all nines.
+     * @param millis the duration in milliseconds
+     * @throws IllegalArgumentException if the duration is negative.
+     */
+    public void setDuration(long millis) {
+        applyDuration(millis);
+        notifyInputChanged();
+    }
+
+    /**
+     * Sets the input to the specified duration.
+     * @param packed the duration as described by {@link PackedDuration}
+     */
+    public void setPackedDuration(long packed) {
+        setDuration(PackedDuration.toMillis(packed));
+    }
+
+    //
+    // internal stuff
+    //
+
+    private void notifyInputChanged() {
+        if (changeListener != null) {
+            changeListener.onInputChanged(this);
+        }
+    }
+
+    private void applyDigit(final char digit) {
+        // accepts all Unicode digits like Integer.parseInt() does, but keeps them as ASCII digits
+        final int value = Character.digit(digit, 10);
+        if (value < 0)
+            throw new IllegalArgumentException("Only numbers are allowed");
+
+        if (length < maxDigits && (length > 0 || value != 0)) {
+            head = head == CAPACITY - 1 ? 0 : head + 1;
+            digits[head] = (char) ('0' + value);
+            ++length;
+            shiftLeft(value);
+        }
+    }
+
+    private void applyClear() {
+        length = 0;
+        for (int i = 0; i < fieldCount; ++i)
+            values[i] = 0;
+    }
+
+    private void applyDuration(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("Negative durations cannot be entered: " + millis);
+        duration = millis;
+        applyClear();
+        final boolean overflow = millis / unitMillis[0] >= limits[0];
+        for (int i = 0; i < fieldCount; ++i) {
+            final long value;
+            if (overflow)
+                value = limits[i] - 1;
+            else if (i == 0)
+                value = millis / unitMillis[i];
+            else
+                value = millis / unitMillis[i] % radixes[i];
+            applyField(value, limits[i]);
+        }
+    }
+
+    private void applyField(long value, int limit) {
+        for (int divisor = limit / 10; divisor > 0; divisor /= 10)
+            applyDigit((char) ('0' + value / divisor % 10));
+    }
+
+    /**
+     * Appends a digit as the least significant one, moving the most significant digit of each field into the next
+     * field.
+     */
+    private void shiftLeft(int digit) {
+        int carry = digit;
+        for (int i = fieldCount - 1; i >= 0; --i) {
+            final int divisor = limits[i] / 10;
+            final int out = values[i] / divisor;
+            values[i] = values[i] % divisor * 10 + carry;
+            carry = out;
+        }
+    }
+
+    /**
+     * Removes the least significant digit, moving the least significant digit of each field into the next field.
+     */
+    private void shiftRight() {
+        int carry = 0;
+        for (int i = 0; i < fieldCount; ++i) {
+            final int out = values[i] % 10;
+            values[i] = values[i] / 10 + carry * (limits[i] / 10);
+            carry = out;
+        }
+    }
+
+    /**
+     * Gets the digit at the specified position of the zero padded input.
+     * @param index position of the digit, where {@code 0} is the most significant one
+     * @return the digit character.
+     */
+    private char digitAt(int index) {
+        final int fromRight = maxDigits - 1 - index;
+        if (fromRight >= length)
+            return '0';
+        final int position = head - fromRight;
+        return digits[position < 0 ? position + CAPACITY : position];
+    }
+
+    private boolean copyDigits(int start, char[] target) {
+        boolean changed = false;
+        for (int i = 0; i < target.length; ++i) {
+            final char digit = digitAt(start + i);
+            if (target[i] != digit) {
+                target[i] = digit;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,28 @@
+package mobi.upod.timedurationpicker;
+
+/**
+ * The units a duration can be made up of, ordered from the most to the least significant one.
+ *
+ * @see TimeUnitLayout
+ */
+public enum TimeDurationUnit {
+    DAYS(TimeDurationUtil.MILLIS_PER_DAY),
+    HOURS(TimeDurationUtil.MILLIS_PER_HOUR),
+    MINUTES(TimeDurationUtil.MILLIS_PER_MINUTE),
+    SECONDS(TimeDurationUtil.MILLIS_PER_SECOND),
+    MILLIS(1);
+
+    private final long millis;
+
+    TimeDurationUnit(long millis) {
+        this.millis = millis;
+    }
+
+    /**
+     * Gets the length of this unit.
+     * @return the number of milliseconds a single unit consists of.
+     */
+    public long getMillis() {
+        return millis;
+    }
+}
@@ -0,0 +1,983 @@
+package mobi.upod.timedurationpicker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Utility class for handling duration values.
+ */
+public class TimeDurationUtil {
+    /** The number of milliseconds within a second. */
+    public static final long MILLIS_PER_SECOND = 1000;
+    /** The number of milliseconds within a minute. */
+    public static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    /** The number of milliseconds within an hour. */
+    public static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    /** The number of milliseconds within a day. */
+    public static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    /** Format {@code h:mm:ss} as used by {@link #format(long, int)}. */
+    public static final int FORMAT_HOURS_MINUTES_SECONDS = 0;
+    /** Format {@code m:ss} as used by {@link #format(long, int)}. */
+    public static final int FORMAT_MINUTES_SECONDS = 1;
+    /** Format {@code s} as used by {@link #format(long, int)}. */
+    public static final int FORMAT_SECONDS = 2;
+    /** Format {@code s.SSS} as used by {@link #format(long, int)}. */
+    public static final int FORMAT_SECONDS_MILLIS = 3;
+    /** Format {@code m:ss.SSS} as used by {@link #format(long, int)}. */
+    public static final int FORMAT_MINUTES_SECONDS_MILLIS = 4;
+
+    /** Returned by the parsing helpers for invalid input; valid durations are never negative. */
+    private static final long INVALID = -1;
+    /** Ranks of the units, which must be strictly increasing within a duration. */
+    private static final int RANK_DAYS = 0;
+    private static final int RANK_HOURS = 1;
+    private static final int RANK_MINUTES = 2;
+    private static final int RANK_SECONDS = 3;
+    private static final int RANK_MILLIS = 4;
+    private static final long[] RANK_MILLIS_PER_UNIT = { MILLIS_PER_DAY, MILLIS_PER_HOUR, MILLIS_PER_MINUTE, MILLIS_PER_SECOND, 1 };
+
+    /** Tens digit of all numbers from 0 to 99. */
+    private static final char[] DIGIT_TENS = new char[100];
+    /** Ones digit of all numbers from 0 to 99. */
+    private static final char[] DIGIT_ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; ++i) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    /**
+     * Calculates the number of hours within the specified duration.
+     * @param duration duration in milliseconds
+     * @return number of hours within the specified duration.
+     */
+    public static int hoursOf(long duration) {
+        return (int) (duration / MILLIS_PER_HOUR);
+    }
+
+    /**
+     * Calculates the full number of minutes within the specified duration.
+     * @param duration duration in milliseconds
+     * @return number of minutes within the specified duration.
+     */
+    public static int minutesOf(long duration) {
+        return (int) (duration / MILLIS_PER_MINUTE);
+    }
+
+    /**
+     * Calculates the number of minutes within the specified duration excluding full hours.
+     * @param duration duration in milliseconds
+     * @return number of minutes within the specified duration.
+     */
+    public static int minutesInHourOf(long duration) {
+        return (int) (duration % MILLIS_PER_HOUR / MILLIS_PER_MINUTE);
+    }
+
+    /**
+     * Calculates the full number of seconds within the specified duration.
+     * @param duration duration in milliseconds
+     * @return number of seconds within the specified duration.
+     */
+    public static int secondsOf(long duration) {
+        return (int) (duration / MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Calculates the number of seconds within the specified duration excluding full minutes.
+     * @param duration duration in milliseconds
+     * @return number of seconds within the specified duration.
+     */
+    public static int secondsInMinuteOf(long duration) {
+        return (int) (duration % MILLIS_PER_MINUTE / MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Calculates the number of milliseconds within the specified duration excluding full seconds.
+     * @param duration duration in milliseconds
+     * @return number of milliseconds within the specified duration.
+     */
+    public static int millisInSecondOf(long duration) {
+        return (int) (duration % MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Splits the specified duration into hours, minutes, seconds and milliseconds in a single pass.
+     *
+     * This is equivalent to calling {@link #hoursOf(long)}, {@link #minutesInHourOf(long)},
+     * {@link #secondsInMinuteOf(long)} and {@link #millisInSecondOf(long)}, but needs three divisions only.
+     * @param duration duration in milliseconds
+     * @param fields the holder to write the result to
+     * @return the specified holder.
+     */
+    public static TimeDurationFields decompose(long duration, TimeDurationFields fields) {
+        final long hours = duration / MILLIS_PER_HOUR;
+        long remainder = duration - hours * MILLIS_PER_HOUR;
+        final long minutes = remainder / MILLIS_PER_MINUTE;
+        remainder -= minutes * MILLIS_PER_MINUTE;
+        final long seconds = remainder / MILLIS_PER_SECOND;
+        fields.hours = (int) hours;
+        fields.minutes = (int) minutes;
+        fields.seconds = (int) seconds;
+        fields.millis = (int) (remainder - seconds * MILLIS_PER_SECOND);
+        return fields;
+    }
+
+    /**
+     * Calculates a duration from hours, minutes and seconds.
+     * @param hours full hours of the duration
+     * @param minutes full minutes of the duration
+     * @param seconds full seconds of the duration
+     * @return duration in milliseconds.
+     */
+    public static long durationOf(int hours, int minutes, int seconds) {
+        return (long)hours * MILLIS_PER_HOUR + minutes * MILLIS_PER_MINUTE + seconds * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * Returns a string representing the specified duration in the format {@code h:mm:ss}.
+     * @param duration duration in milliseconds
+     * @return string representation of the duration.
+     */
+    public static String formatHoursMinutesSeconds(long duration) {
+        return String.format("%d:%02d:%02d", hoursOf(duration), minutesInHourOf(duration), secondsInMinuteOf(duration));
+    }
+
+    /**
+     * Returns a string representing the specified duration in the format {@code m:ss}.
+     * @param duration duration in milliseconds
+     * @return string representation of the duration.
+     */
+    public static String formatMinutesSeconds(long duration) {
+        return String.format("%d:%02d", minutesOf(duration), secondsInMinuteOf(duration));
+    }
+
+    /**
+     * Returns a string representing the specified duration in the format {@code s}.
+     * @param duration duration in milliseconds
+     * @return string representation of the duration.
+     */
+    public static String formatSeconds(long duration) {
+        return String.format("%d", secondsInMinuteOf(duration));
+    }
+
+    /**
+     * Returns a string representing the specified duration in the format {@code m:ss.SSS}.
+     * @param duration duration in milliseconds
+     * @return string representation of the duration.
+     */
+    public static String formatMinutesSecondsMillis(long duration) {
+        return String.format("%d:%02d.%03d", minutesOf(duration), secondsInMinuteOf(duration), millisInSecondOf(duration));
+    }
+
+    /**
+     * Returns a string representing the specified duration in the format {@code s.SSS}.
+     * @param duration duration in milliseconds
+     * @return string representation of the duration.
+     */
+    public static String formatSecondsMillis(long duration) {
+        return String.format("%d.%03d", secondsOf(duration), millisInSecondOf(duration));
+    }
+
+    /**
+     * Returns a string representing the specified duration in the specified format.
+     * @param duration duration in milliseconds
+     * @param format one of the {@code FORMAT_*} constants
+     * @return string representation of the duration.
+     * @throws IllegalArgumentException if the format is unknown.
+     * @see TimeDurationFormatCache
+     */
+    public static String format(long duration, int format) {
+        switch (format) {
+            case FORMAT_HOURS_MINUTES_SECONDS:
+                return formatHoursMinutesSeconds(duration);
+            case FORMAT_MINUTES_SECONDS:
+                return formatMinutesSeconds(duration);
+            case FORMAT_SECONDS:
+                return formatSeconds(duration);
+            case FORMAT_SECONDS_MILLIS:
+                return formatSecondsMillis(duration);
+            case FORMAT_MINUTES_SECONDS_MILLIS:
+                return formatMinutesSecondsMillis(duration);
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    /**
+     * Does the same as {@link #format(long, int)}, but takes the string from the shared cache returned by
+     * {@link #getSharedFormatCache()}, so that frequently shown durations are formatted only once.
+     * @param duration duration in milliseconds
+     * @param format one of the {@code FORMAT_*} constants
+     * @return string representation of the duration.
+     * @throws IllegalArgumentException if the format is unknown.
+     */
+    public static String formatCached(long duration, int format) {
+        return SharedFormatCacheHolder.CACHE.format(duration, format);
+    }
+
+    /**
+     * Gets the cache used by {@link #formatCached(long, int)}. It holds {@link TimeDurationFormatCache#DEFAULT_CAPACITY}
+     * entries and is created on first use. Clear it, if the default locale changes.
+     * @return the shared cache.
+     */
+    public static TimeDurationFormatCache getSharedFormatCache() {
+        return SharedFormatCacheHolder.CACHE;
+    }
+
+    /** Creates the shared cache on first use only. */
+    private static class SharedFormatCacheHolder {
+        static final TimeDurationFormatCache CACHE = new TimeDurationFormatCache();
+    }
+
+    //
+    // allocation free formatting
+    //
+    // The following methods always write ASCII digits and produce the same output as their String counterparts in
+    // locales using ASCII digits.
+    //
+
+    /**
+     * Appends the specified duration in the format {@code h:mm:ss} to the specified builder.
+     * @param duration duration in milliseconds
+     * @param out the builder to append to
+     * @return the specified builder.
+     */
+    public static StringBuilder formatHoursMinutesSeconds(long duration, StringBuilder out) {
+        try {
+            formatHoursMinutesSeconds(duration, (Appendable) out);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out;
+    }
+
+    /**
+     * Appends the specified duration in the format {@code h:mm:ss} to the specified target.
+     * @param duration duration in milliseconds
+     * @param out the target to append to
+     * @return the specified target.
+     * @throws IOException if the target fails to append the characters.
+     */
+    public static Appendable formatHoursMinutesSeconds(long duration, Appendable out) throws IOException {
+        appendNumber(hoursOf(duration), out);
+        out.append(':');
+        appendTwoDigits(minutesInHourOf(duration), out);
+        out.append(':');
+        appendTwoDigits(secondsInMinuteOf(duration), out);
+        return out;
+    }
+
+    /**
+     * Writes the specified duration in the format {@code h:mm:ss} to the specified buffer.
+     * @param duration duration in milliseconds
+     * @param buffer the buffer to write to
+     * @param offset index within the buffer of the first character to be written
+     * @return the number of characters written.
+     * @throws ArrayIndexOutOfBoundsException if the buffer is too small for the formatted duration.
+     */
+    public static int formatHoursMinutesSeconds(long duration, char[] buffer, int offset) {
+        int index = writeNumber(hoursOf(duration), buffer, offset);
+        buffer[index++] = ':';
+        index = writeTwoDigits(minutesInHourOf(duration), buffer, index);
+        buffer[index++] = ':';
+        index = writeTwoDigits(secondsInMinuteOf(duration), buffer, index);
+        return index - offset;
+    }
+
+    /**
+     * Appends the specified duration in the format {@code m:ss} to the specified builder.
+     * @param duration duration in milliseconds
+     * @param out the builder to append to
+     * @return the specified builder.
+     */
+    public static StringBuilder formatMinutesSeconds(long duration, StringBuilder out) {
+        try {
+            formatMinutesSeconds(duration, (Appendable) out);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out;
+    }
+
+    /**
+     * Appends the specified duration in the format {@code m:ss} to the specified target.
+     * @param duration duration in milliseconds
+     * @param out the target to append to
+     * @return the specified target.
+     * @throws IOException if the target fails to append the characters.
+     */
+    public static Appendable formatMinutesSeconds(long duration, Appendable out) throws IOException {
+        appendNumber(minutesOf(duration), out);
+        out.append(':');
+        appendTwoDigits(secondsInMinuteOf(duration), out);
+        return out;
+    }
+
+    /**
+     * Writes the specified duration in the format {@code m:ss} to the specified buffer.
+     * @param duration duration in milliseconds
+     * @param buffer the buffer to write to
+     * @param offset index within the buffer of the first character to be written
+     * @return the number of characters written.
+     * @throws ArrayIndexOutOfBoundsException if the buffer is too small for the formatted duration.
+     */
+    public static int formatMinutesSeconds(long duration, char[] buffer, int offset) {
+        int index = writeNumber(minutesOf(duration), buffer, offset);
+        buffer[index++] = ':';
+        index = writeTwoDigits(secondsInMinuteOf(duration), buffer, index);
+        return index - offset;
+    }
+
+    /**
+     * Appends the specified duration in the format {@code s} to the specified builder.
+     * @param duration duration in milliseconds
+     * @param out the builder to append to
+     * @return the specified builder.
+     */
+    public static StringBuilder formatSeconds(long duration, StringBuilder out) {
+        try {
+            formatSeconds(duration, (Appendable) out);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out;
+    }
+
+    /**
+     * Appends the specified duration in the format {@code s} to the specified target.
+     * @param duration duration in milliseconds
+     * @param out the target to append to
+     * @return the specified target.
+     * @throws IOException if the target fails to append the characters.
+     */
+    public static Appendable formatSeconds(long duration, Appendable out) throws IOException {
+        appendNumber(secondsInMinuteOf(duration), out);
+        return out;
+    }
+
+    /**
+     * Writes the specified duration in the format {@code s} to the specified buffer.
+     * @param duration duration in milliseconds
+     * @param buffer the buffer to write to
+     * @param offset index within the buffer of the first character to be written
+     * @return the number of characters written.
+     * @throws ArrayIndexOutOfBoundsException if the buffer is too small for the formatted duration.
+     */
+    public static int formatSeconds(long duration, char[] buffer, int offset) {
+        return writeNumber(secondsInMinuteOf(duration), buffer, offset) - offset;
+    }
+
+    /**
+     * Appends the specified duration in the format {@code m:ss.SSS} to the specified builder.
+     * @param duration duration in milliseconds
+     * @param out the builder to append to
+     * @return the specified builder.
+     */
+    public static StringBuilder formatMinutesSecondsMillis(long duration, StringBuilder out) {
+        try {
+            formatMinutesSecondsMillis(duration, (Appendable) out);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out;
+    }
+
+    /**
+     * Appends the specified duration in the format {@code m:ss.SSS} to the specified target.
+     * @param duration duration in milliseconds
+     * @param out the target to append to
+     * @return the specified target.
+     * @throws IOException if the target fails to append the characters.
+     */
+    public static Appendable formatMinutesSecondsMillis(long duration, Appendable out) throws IOException {
+        appendNumber(minutesOf(duration), out);
+        out.append(':');
+        appendTwoDigits(secondsInMinuteOf(duration), out);
+        out.append('.');
+        appendThreeDigits(millisInSecondOf(duration), out);
+        return out;
+    }
+
+    /**
+     * Writes the specified duration in the format {@code m:ss.SSS} to the specified buffer.
+     * @param duration duration in milliseconds
+     * @param buffer the buffer to write to
+     * @param offset index within the buffer of the first character to be written
+     * @return the number of characters written.
+     * @throws ArrayIndexOutOfBoundsException if the buffer is too small for the formatted duration.
+     */
+    public static int formatMinutesSecondsMillis(long duration, char[] buffer, int offset) {
+        int index = writeNumber(minutesOf(duration), buffer, offset);
+        buffer[index++] = ':';
+        index = writeTwoDigits(secondsInMinuteOf(duration), buffer, index);
+        buffer[index++] = '.';
+        index = writeThreeDigits(millisInSecondOf(duration), buffer, index);
+        return index - offset;
+    }
+
+    /**
+     * Appends the specified duration in the format {@code s.SSS} to the specified builder.
+     * @param duration duration in milliseconds
+     * @param out the builder to append to
+     * @return the specified builder.
+     */
+    public static StringBuilder formatSecondsMillis(long duration, StringBuilder out) {
+        try {
+            formatSecondsMillis(duration, (Appendable) out);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out;
+    }
+
+    /**
+     * Appends the specified duration in the format {@code s.SSS} to the specified target.
+     * @param duration duration in milliseconds
+     * @param out the target to append to
+     * @return the specified target.
+     * @throws IOException if the target fails to append the characters.
+     */
+    public static Appendable formatSecondsMillis(long duration, Appendable out) throws IOException {
+        appendNumber(secondsOf(duration), out);
+        out.append('.');
+        appendThreeDigits(millisInSecondOf(duration), out);
+        return out;
+    }
+
+    /**
+     * Writes the specified duration in the format {@code s.SSS} to the specified buffer.
+     * @param duration duration in milliseconds
+     * @param buffer the buffer to write to
+     * @param offset index within the buffer of the first character to be written
+     * @return the number of characters written.
+     * @throws ArrayIndexOutOfBoundsException if the buffer is too small for the formatted duration.
+     */
+    public static int formatSecondsMillis(long duration, char[] buffer, int offset) {
+        int index = writeNumber(secondsOf(duration), buffer, offset);
+        buffer[index++] = '.';
+        index = writeThreeDigits(millisInSecondOf(duration), buffer, index);
+        return index - offset;
+    }
+
+    //
+    // bulk conversion
+    //
+    // The following methods convert ranges of durations at once. Their loops have no data dependent branches between
+    // the iterations, so that they can be unrolled by the JIT compiler.
+    //
+
+    /**
+     * Splits a range of durations into hours, minutes within the hour and seconds within the minute. Milliseconds are
+     * dropped.
+     * @param durations the durations in milliseconds
+     * @param offset index of the first duration to convert
+     * @param length number of durations to convert
+     * @param hours receives the hours of each duration
+     * @param minutes receives the minutes of each duration
+     * @param seconds receives the seconds of each duration
+     * @param outOffset index within the output arrays to write the fields of the first duration to
+     * @throws IndexOutOfBoundsException if one of the ranges exceeds its array.
+     */
+    public static void decompose(long[] durations, int offset, int length, int[] hours, int[] minutes, int[] seconds, int outOffset) {
+        checkRange(offset, length, durations.length);
+        checkRange(outOffset, length, hours.length);
+        checkRange(outOffset, length, minutes.length);
+        checkRange(outOffset, length, seconds.length);
+        for (int i = 0; i < length; ++i) {
+            final long duration = durations[offset + i];
+            final long fullHours = duration / MILLIS_PER_HOUR;
+            final long remainder = duration - fullHours * MILLIS_PER_HOUR;
+            final long fullMinutes = remainder / MILLIS_PER_MINUTE;
+            hours[outOffset + i] = (int) fullHours;
+            minutes[outOffset + i] = (int) fullMinutes;
+            seconds[outOffset + i] = (int) ((remainder - fullMinutes * MILLIS_PER_MINUTE) / MILLIS_PER_SECOND);
+        }
+    }
+
+    /**
+     * Writes a range of durations in the format {@code h:mm:ss} one after another into the specified buffer.
+     * @param durations the durations in milliseconds
+     * @param offset index of the first duration to format
+     * @param length number of durations to format
+     * @param buffer the buffer to write to
+     * @param bufferOffset index within the buffer of the first character to be written
+     * @param ends receives the index within the buffer behind each formatted duration, so that the {@code i}-th
+     *             duration of the range is found between {@code ends[i - 1]} (or {@code bufferOffset}) and
+     *             {@code ends[i]}
+     * @return the number of characters written.
+     * @throws ArrayIndexOutOfBoundsException if the buffer is too small for the formatted durations.
+     * @throws IndexOutOfBoundsException if the range exceeds the durations or the ends.
+     */
+    public static int formatHoursMinutesSeconds(long[] durations, int offset, int length, char[] buffer, int bufferOffset, int[] ends) {
+        checkRange(offset, length, durations.length);
+        checkRange(0, length, ends.length);
+        int index = bufferOffset;
+        for (int i = 0; i < length; ++i) {
+            index += formatHoursMinutesSeconds(durations[offset + i], buffer, index);
+            ends[i] = index;
+        }
+        return index - bufferOffset;
+    }
+
+    /**
+     * Writes a range of durations in the format {@code m:ss} one after another into the specified buffer.
+     * @param durations the durations in milliseconds
+     * @param offset index of the first duration to format
+     * @param length number of durations to format
+     * @param buffer the buffer to write to
+     * @param bufferOffset index within the buffer of the first character to be written
+     * @param ends receives the index within the buffer behind each formatted duration, so that the {@code i}-th
+     *             duration of the range is found between {@code ends[i - 1]} (or {@code bufferOffset}) and
+     *             {@code ends[i]}
+     * @return the number of characters written.
+     * @throws ArrayIndexOutOfBoundsException if the buffer is too small for the formatted durations.
+     * @throws IndexOutOfBoundsException if the range exceeds the durations or the ends.
+     */
+    public static int formatMinutesSeconds(long[] durations, int offset, int length, char[] buffer, int bufferOffset, int[] ends) {
+        checkRange(offset, length, durations.length);
+        checkRange(0, length, ends.length);
+        int index = bufferOffset;
+        for (int i = 0; i < length; ++i) {
+            index += formatMinutesSeconds(durations[offset + i], buffer, index);
+            ends[i] = index;
+        }
+        return index - bufferOffset;
+    }
+
+    /**
+     * Writes a range of durations in the format {@code s} one after another into the specified buffer.
+     * @param durations the durations in milliseconds
+     * @param offset index of the first duration to format
+     * @param length number of durations to format
+     * @param buffer the buffer to write to
+     * @param bufferOffset index within the buffer of the first character to be written
+     * @param ends receives the index within the buffer behind each formatted duration, so that the {@code i}-th
+     *             duration of the range is found between {@code ends[i - 1]} (or {@code bufferOffset}) and
+     *             {@code ends[i]}
+     * @return the number of characters written.
+     * @throws ArrayIndexOutOfBoundsException if the buffer is too small for the formatted durations.
+     * @throws IndexOutOfBoundsException if the range exceeds the durations or the ends.
+     */
+    public static int formatSeconds(long[] durations, int offset, int length, char[] buffer, int bufferOffset, int[] ends) {
+        checkRange(offset, length, durations.length);
+        checkRange(0, length, ends.length);
+        int index = bufferOffset;
+        for (int i = 0; i < length; ++i) {
+            index += formatSeconds(durations[offset + i], buffer, index);
+            ends[i] = index;
+        }
+        return index - bufferOffset;
+    }
+
+    //
+    // parsing
+    //
+    // The parsers accept the formats written above ({@code h:mm:ss}, {@code m:ss}, {@code s}, each optionally followed
+    // by a fraction of a second like {@code m:ss.SSS}), unit suffixed components like {@code 1h30m} or
+    // {@code 2d 4h 30m 15s 250ms} and ISO-8601 durations like {@code PT1H30M} or {@code P2DT0.5S}. Days always count as
+    // 24 hours, ISO years, months and weeks are not supported. Leading and trailing white space is ignored.
+    //
+    // Parsing does not allocate anything unless the input is invalid.
+    //
+
+    /**
+     * Parses a duration.
+     * @param text the text to parse
+     * @return the duration in milliseconds.
+     * @throws IllegalArgumentException if the text does not contain a valid duration.
+     */
+    public static long parseDuration(CharSequence text) {
+        return parseDuration(text, 0, text.length());
+    }
+
+    /**
+     * Parses a duration from a part of the specified text.
+     * @param text the text to parse
+     * @param offset index of the first character to parse
+     * @param length number of characters to parse
+     * @return the duration in milliseconds.
+     * @throws IllegalArgumentException if the range does not contain a valid duration.
+     * @throws IndexOutOfBoundsException if the range exceeds the text.
+     */
+    public static long parseDuration(CharSequence text, int offset, int length) {
+        checkRange(offset, length, text.length());
+        return parseDuration((Object) text, offset, offset + length);
+    }
+
+    /**
+     * Parses a duration from a part of the specified buffer.
+     * @param text the characters to parse
+     * @param offset index of the first character to parse
+     * @param length number of characters to parse
+     * @return the duration in milliseconds.
+     * @throws IllegalArgumentException if the range does not contain a valid duration.
+     * @throws IndexOutOfBoundsException if the range exceeds the buffer.
+     */
+    public static long parseDuration(char[] text, int offset, int length) {
+        checkRange(offset, length, text.length);
+        return parseDuration((Object) text, offset, offset + length);
+    }
+
+    /**
+     * Parses a duration from a part of the specified buffer of ASCII encoded (or UTF-8 encoded) characters. The
+     * buffer is accessed using absolute indices, so that its position is neither used nor changed.
+     * @param text the bytes to parse
+     * @param offset absolute index of the first byte to parse
+     * @param length number of bytes to parse
+     * @return the duration in milliseconds.
+     * @throws IllegalArgumentException if the range does not contain a valid duration.
+     * @throws IndexOutOfBoundsException if the range exceeds the limit of the buffer.
+     */
+    public static long parseDuration(ByteBuffer text, int offset, int length) {
+        checkRange(offset, length, text.limit());
+        return parseDuration((Object) text, offset, offset + length);
+    }
+
+    static void checkRange(int offset, int length, int size) {
+        if (offset < 0 || length < 0 || offset > size - length)
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length + ") exceeds size " + size);
+    }
+
+    private static long parseDuration(Object source, int start, int end) {
+        int from = start;
+        int to = end;
+        while (from < to && Character.isWhitespace(charAt(source, from)))
+            ++from;
+        while (to > from && Character.isWhitespace(charAt(source, to - 1)))
+            --to;
+
+        final long duration;
+        if (from == to)
+            duration = INVALID;
+        else if (charAt(source, from) == 'P' || charAt(source, from) == 'p')
+            duration = parseIso(source, from + 1, to);
+        else if (isDigit(charAt(source, to - 1)))
+            duration = parseClock(source, from, to);
+        else
+            duration = parseUnits(source, from, to);
+
+        if (duration == INVALID) {
+            final StringBuilder text = new StringBuilder(end - start);
+            for (int i = start; i < end; ++i)
+                text.append(charAt(source, i));
+            throw new IllegalArgumentException("Invalid duration: \"" + text + "\"");
+        }
+        return duration;
+    }
+
+    /**
+     * Parses {@code h:mm:ss}, {@code m:ss} or {@code s} with an optional fraction of a second. Fields following a
+     * colon must have exactly two digits.
+     */
+    private static long parseClock(Object source, int start, int end) {
+        long seconds = 0;
+        int fields = 0;
+        int index = start;
+        while (true) {
+            final int fieldStart = index;
+            long value = 0;
+            for (; index < end && isDigit(charAt(source, index)); ++index) {
+                value = multiplyAdd(value, 10, charAt(source, index) - '0');
+                if (value == INVALID)
+                    return INVALID;
+            }
+            if (index == fieldStart || (fields > 0 && (index - fieldStart != 2 || value >= 60)))
+                return INVALID;
+            seconds = multiplyAdd(seconds, 60, value);
+            if (seconds == INVALID)
+                return INVALID;
+            ++fields;
+
+            if (index == end)
+                return multiplyAdd(seconds, MILLIS_PER_SECOND, 0);
+            final char separator = charAt(source, index++);
+            if (separator == '.') {
+                final long millis = parseFraction(source, index, end);
+                return millis == INVALID ? INVALID : multiplyAdd(seconds, MILLIS_PER_SECOND, millis);
+            }
+            if (separator != ':' || fields == 3)
+                return INVALID;
+        }
+    }
+
+    /**
+     * Parses unit suffixed components like {@code 1h 30m}. Only seconds may have a fraction.
+     */
+    private static long parseUnits(Object source, int start, int end) {
+        long duration = 0;
+        int lastRank = -1;
+        int index = start;
+        while (index < end) {
+            final int numberStart = index;
+            long value = 0;
+            for (; index < end && isDigit(charAt(source, index)); ++index) {
+                value = multiplyAdd(value, 10, charAt(source, index) - '0');
+                if (value == INVALID)
+                    return INVALID;
+            }
+            if (index == numberStart)
+                return INVALID;
+            final int fractionStart = index < end && charAt(source, index) == '.' ? ++index : -1;
+            while (index < end && isDigit(charAt(source, index)))
+                ++index;
+            final int fractionEnd = index;
+            while (index < end && charAt(source, index) == ' ')
+                ++index;
+            if (index == end)
+                return INVALID;
+
+            final int rank;
+            final char unit = Character.toLowerCase(charAt(source, index++));
+            if (unit == 'd') {
+                rank = RANK_DAYS;
+            } else if (unit == 'h') {
+                rank = RANK_HOURS;
+            } else if (unit == 'm') {
+                if (index < end && Character.toLowerCase(charAt(source, index)) == 's') {
+                    ++index;
+                    rank = RANK_MILLIS;
+                } else {
+                    rank = RANK_MINUTES;
+                }
+            } else if (unit == 's') {
+                rank = RANK_SECONDS;
+            } else {
+                return INVALID;
+            }
+            if (rank <= lastRank || (fractionStart >= 0 && rank != RANK_SECONDS))
+                return INVALID;
+            lastRank = rank;
+
+            final long fraction = fractionStart >= 0 ? parseFraction(source, fractionStart, fractionEnd) : 0;
+            duration = addComponent(duration, value, RANK_MILLIS_PER_UNIT[rank], fraction);
+            if (duration == INVALID)
+                return INVALID;
+            while (index < end && charAt(source, index) == ' ')
+                ++index;
+        }
+        return duration;
+    }
+
+    /**
+     * Parses the part of an ISO-8601 duration following the {@code P}, e.g. {@code 1DT2H30M15.5S}.
+     */
+    private static long parseIso(Object source, int start, int end) {
+        long duration = 0;
+        int lastRank = -1;
+        boolean time = false;
+        boolean empty = true;
+        int index = start;
+        while (index < end) {
+            if (!time && Character.toUpperCase(charAt(source, index)) == 'T') {
+                time = true;
+                empty = true;
+                ++index;
+                continue;
+            }
+
+            final int numberStart = index;
+            long value = 0;
+            for (; index < end && isDigit(charAt(source, index)); ++index) {
+                value = multiplyAdd(value, 10, charAt(source, index) - '0');
+                if (value == INVALID)
+                    return INVALID;
+            }
+            if (index == numberStart)
+                return INVALID;
+            final int fractionStart = index < end && (charAt(source, index) == '.' || charAt(source, index) == ',') ? ++index : -1;
+            while (index < end && isDigit(charAt(source, index)))
+                ++index;
+            final int fractionEnd = index;
+            if (index == end)
+                return INVALID;
+
+            final int rank;
+            final char unit = Character.toUpperCase(charAt(source, index++));
+            if (!time && unit == 'D')
+                rank = RANK_DAYS;
+            else if (time && unit == 'H')
+                rank = RANK_HOURS;
+            else if (time && unit == 'M')
+                rank = RANK_MINUTES;
+            else if (time && unit == 'S')
+                rank = RANK_SECONDS;
+            else
+                return INVALID;
+            if (rank <= lastRank || (fractionStart >= 0 && rank != RANK_SECONDS))
+                return INVALID;
+            lastRank = rank;
+            empty = false;
+
+            final long fraction = fractionStart >= 0 ? parseFraction(source, fractionStart, fractionEnd) : 0;
+            duration = addComponent(duration, value, RANK_MILLIS_PER_UNIT[rank], fraction);
+            if (duration == INVALID)
+                return INVALID;
+        }
+        return empty ? INVALID : duration;
+    }
+
+    /**
+     * Parses the digits following the decimal separator of a number of seconds. Digits beyond milliseconds are
+     * truncated.
+     * @return the number of milliseconds or {@link #INVALID} if the range is empty or contains something else than
+     * digits.
+     */
+    private static long parseFraction(Object source, int start, int end) {
+        if (start == end)
+            return INVALID;
+        long millis = 0;
+        for (int index = start; index < end; ++index) {
+            final char c = charAt(source, index);
+            if (!isDigit(c))
+                return INVALID;
+            if (index - start < 3)
+                millis = millis * 10 + (c - '0');
+        }
+        for (int digits = end - start; digits < 3; ++digits)
+            millis *= 10;
+        return millis;
+    }
+
+    private static long addComponent(long duration, long value, long unitMillis, long fraction) {
+        if (fraction == INVALID)
+            return INVALID;
+        final long component = multiplyAdd(value, unitMillis, fraction);
+        if (component == INVALID || duration > Long.MAX_VALUE - component)
+            return INVALID;
+        return duration + component;
+    }
+
+    /**
+     * Calculates {@code value * factor + summand} for non negative arguments.
+     * @return the result or {@link #INVALID} if it overflows.
+     */
+    private static long multiplyAdd(long value, long factor, long summand) {
+        if (value > (Long.MAX_VALUE - summand) / factor)
+            return INVALID;
+        return value * factor + summand;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static char charAt(Object source, int index) {
+        if (source instanceof char[])
+            return ((char[]) source)[index];
+        if (source instanceof ByteBuffer)
+            return (char) (((ByteBuffer) source).get(index) & 0xff);
+        return ((CharSequence) source).charAt(index);
+    }
+
+    //
+    // digit helpers
+    //
+
+    private static void appendTwoDigits(int value, Appendable out) throws IOException {
+        if (value >= 0 && value < 100) {
+            out.append(DIGIT_TENS[value]).append(DIGIT_ONES[value]);
+        } else {
+            appendNumber(value, out);
+        }
+    }
+
+    private static void appendThreeDigits(int value, Appendable out) throws IOException {
+        if (value >= 0 && value < 1000) {
+            out.append(DIGIT_ONES[value / 100]);
+            appendTwoDigits(value % 100, out);
+        } else if (value < 0 && value > -100) {
+            // like %03d the sign counts towards the width
+            out.append('-').append(DIGIT_TENS[-value]).append(DIGIT_ONES[-value]);
+        } else {
+            appendNumber(value, out);
+        }
+    }
+
+    private static void appendNumber(int value, Appendable out) throws IOException {
+        if (value >= 0 && value < 100) {
+            if (value >= 10) {
+                out.append(DIGIT_TENS[value]);
+            }
+            out.append(DIGIT_ONES[value]);
+        } else if (value == Integer.MIN_VALUE) {
+            out.append(Integer.toString(value));
+        } else {
+            if (value < 0) {
+                out.append('-');
+                value = -value;
+            }
+            int divisor = 1;
+            while (value / divisor >= 100) {
+                divisor *= 100;
+            }
+            // the leading pair may have a single digit only; all further pairs are zero padded
+            final int leading = value / divisor;
+            if (leading >= 10) {
+                out.append(DIGIT_TENS[leading]);
+            }
+            out.append(DIGIT_ONES[leading]);
+            for (divisor /= 100; divisor > 0; divisor /= 100) {
+                final int pair = value / divisor % 100;
+                out.append(DIGIT_TENS[pair]).append(DIGIT_ONES[pair]);
+            }
+        }
+    }
+
+    private static int writeTwoDigits(int value, char[] buffer, int offset) {
+        if (value >= 0 && value < 100) {
+            buffer[offset] = DIGIT_TENS[value];
+            buffer[offset + 1] = DIGIT_ONES[value];
+            return offset + 2;
+        }
+        return writeNumber(value, buffer, offset);
+    }
+
+    private static int writeThreeDigits(int value, char[] buffer, int offset) {
+        if (value >= 0 && value < 1000) {
+            buffer[offset] = DIGIT_ONES[value / 100];
+            return writeTwoDigits(value % 100, buffer, offset + 1);
+        } else if (value < 0 && value > -100) {
+            // like %03d the sign counts towards the width
+            buffer[offset] = '-';
+            return writeTwoDigits(-value, buffer, offset + 1);
+        }
+        return writeNumber(value, buffer, offset);
+    }
+
+    private static int writeNumber(int value, char[] buffer, int offset) {
+        if (value < 0) {
+            if (value == Integer.MIN_VALUE) {
+                final String digits = Integer.toString(value);
+                digits.getChars(0, digits.length(), buffer, offset);
+                return offset + digits.length();
+            }
+            buffer[offset++] = '-';
+            value = -value;
+        }
+        final int end = offset + digitCount(value);
+        int index = end;
+        while (value >= 100) {
+            final int pair = value % 100;
+            value /= 100;
+            buffer[--index] = DIGIT_ONES[pair];
+            buffer[--index] = DIGIT_TENS[pair];
+        }
+        buffer[--index] = DIGIT_ONES[value];
+        if (value >= 10) {
+            buffer[--index] = DIGIT_TENS[value];
+        }
+        return end;
+    }
+
+    private static int digitCount(int value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            ++count;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,174 @@
+package mobi.upod.timedurationpicker;
+
+import java.util.Arrays;
+
+/**
+ * Describes the fields a {@code TimeDurationPicker} is made up of: an ordered list of units, each with the number of
+ * digits that can be entered for it.
+ *
+ * The first field is unbounded and takes all larger units, e.g. the hours in {@code h:mm:ss} contain the days as
+ * well. The value of every other field is below its radix, which is the number of its units that make up a single unit
+ * of the previous field (e.g. {@code 60} for minutes following hours or {@code 1000} for milliseconds following
+ * seconds). Parsing, display and decomposition of the picker are all driven by this table.
+ *
+ * Layouts are immutable.
+ */
+public final class TimeUnitLayout {
+    /** The maximum number of digits all fields of a layout can have in total. */
+    public static final int MAX_DIGITS = 16;
+    /** The maximum number of digits of a single field. */
+    public static final int MAX_FIELD_DIGITS = 9;
+
+    public static final TimeUnitLayout HOURS_MINUTES_SECONDS = new TimeUnitLayout(
+            new TimeDurationUnit[] { TimeDurationUnit.HOURS, TimeDurationUnit.MINUTES, TimeDurationUnit.SECONDS },
+            new int[] { 4, 2, 2 });
+    public static final TimeUnitLayout HOURS_MINUTES = new TimeUnitLayout(
+            new TimeDurationUnit[] { TimeDurationUnit.HOURS, TimeDurationUnit.MINUTES },
+            new int[] { 4, 2 });
+    public static final TimeUnitLayout MINUTES_SECONDS = new TimeUnitLayout(
+            new TimeDurationUnit[] { TimeDurationUnit.MINUTES, TimeDurationUnit.SECONDS },
+            new int[] { 2, 2 });
+    public static final TimeUnitLayout SECONDS_MILLIS = new TimeUnitLayout(
+            new TimeDurationUnit[] { TimeDurationUnit.SECONDS, TimeDurationUnit.MILLIS },
+            new int[] { 2, 3 });
+    public static final TimeUnitLayout MINUTES_SECONDS_MILLIS = new TimeUnitLayout(
+            new TimeDurationUnit[] { TimeDurationUnit.MINUTES, TimeDurationUnit.SECONDS, TimeDurationUnit.MILLIS },
+            new int[] { 2, 2, 3 });
+    public static final TimeUnitLayout DAYS_HOURS_MINUTES_SECONDS = new TimeUnitLayout(
+            new TimeDurationUnit[] { TimeDurationUnit.DAYS, TimeDurationUnit.HOURS, TimeDurationUnit.MINUTES, TimeDurationUnit.SECONDS },
+            new int[] { 2, 2, 2, 2 });
+
+    /** Predefined layouts indexed by the time unit constants of {@code TimeDurationPicker}. */
+    private static final TimeUnitLayout[] TIME_UNIT_LAYOUTS = {
+            HOURS_MINUTES_SECONDS, HOURS_MINUTES, MINUTES_SECONDS, SECONDS_MILLIS, MINUTES_SECONDS_MILLIS, DAYS_HOURS_MINUTES_SECONDS
+    };
+
+    private final TimeDurationUnit[] units;
+    private final int[] widths;
+    private final long[] radixes;
+    private final int digitCount;
+
+    /**
+     * Creates a layout.
+     * @param units the units of the fields, strictly ordered from the most to the least significant one
+     * @param widths the number of digits of each field
+     * @throws IllegalArgumentException if the units are not strictly ordered, a field is too narrow for its radix or
+     * the layout has too many digits.
+     */
+    public TimeUnitLayout(TimeDurationUnit[] units, int[] widths) {
+        if (units.length == 0 || units.length != widths.length)
+            throw new IllegalArgumentException("Expected the same positive number of units and widths");
+
+        this.units = units.clone();
+        this.widths = widths.clone();
+        radixes = new long[units.length];
+        int digitCount = 0;
+        for (int i = 0; i < units.length; ++i) {
+            if (this.widths[i] < 1 || this.widths[i] > MAX_FIELD_DIGITS)
+                throw new IllegalArgumentException("Invalid number of digits for " + this.units[i] + ": " + this.widths[i]);
+            if (i > 0) {
+                if (this.units[i].compareTo(this.units[i - 1]) <= 0)
+                    throw new IllegalArgumentException("Units must be ordered from the most to the least significant one");
+                radixes[i] = this.units[i - 1].getMillis() / this.units[i].getMillis();
+                if (radixes[i] - 1 > maxValue(this.widths[i]))
+                    throw new IllegalArgumentException(this.widths[i] + " digits are not sufficient for " + this.units[i] + " following " + this.units[i - 1]);
+            }
+            digitCount += this.widths[i];
+        }
+        if (digitCount > MAX_DIGITS)
+            throw new IllegalArgumentException("Layout exceeds " + MAX_DIGITS + " digits");
+        this.digitCount = digitCount;
+    }
+
+    /**
+     * Gets the predefined layout for one of the time unit constants of {@code TimeDurationPicker}.
+     * @param timeUnits one of {@code TimeDurationPicker.HH_MM_SS}, {@code TimeDurationPicker.HH_MM},
+     * {@code TimeDurationPicker.MM_SS}, {@code TimeDurationPicker.SS_MS}, {@code TimeDurationPicker.MM_SS_MS} or
+     * {@code TimeDurationPicker.DD_HH_MM_SS}
+     * @return the matching layout.
+     * @throws IllegalArgumentException if the time units are unknown.
+     */
+    public static TimeUnitLayout forTimeUnits(int timeUnits) {
+        if (timeUnits < 0 || timeUnits >= TIME_UNIT_LAYOUTS.length)
+            throw new IllegalArgumentException("Unknown time units: " + timeUnits);
+        return TIME_UNIT_LAYOUTS[timeUnits];
+    }
+
+    /**
+     * Gets the number of fields.
+     * @return the number of fields of this layout.
+     */
+    public int getFieldCount() {
+        return units.length;
+    }
+
+    /**
+     * Gets the unit of a field.
+     * @param field index of the field, starting with the most significant one
+     * @return the unit of the field.
+     */
+    public TimeDurationUnit getUnit(int field) {
+        return units[field];
+    }
+
+    /**
+     * Gets the number of digits of a field.
+     * @param field index of the field, starting with the most significant one
+     * @return the number of digits of the field.
+     */
+    public int getWidth(int field) {
+        return widths[field];
+    }
+
+    /**
+     * Gets the radix of a field, which is the number of its units making up a single unit of the previous field.
+     * @param field index of the field, starting with the most significant one
+     * @return the radix of the field or {@code 0} for the first field, which is unbounded.
+     */
+    public long getRadix(int field) {
+        return radixes[field];
+    }
+
+    /**
+     * Gets the number of digits of all fields.
+     * @return the maximum number of digits that can be entered.
+     */
+    public int getDigitCount() {
+        return digitCount;
+    }
+
+    /**
+     * Finds the field of a unit.
+     * @param unit the unit to search for
+     * @return the index of the unit's field or {@code -1} if this layout does not contain the unit.
+     */
+    public int indexOf(TimeDurationUnit unit) {
+        for (int i = 0; i < units.length; ++i) {
+            if (units[i] == unit)
+                return i;
+        }
+        return -1;
+    }
+
+    private static long maxValue(int width) {
+        long value = 1;
+        for (int i = 0; i < width; ++i)
+            value *= 10;
+        return value - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof TimeUnitLayout))
+            return false;
+        final TimeUnitLayout other = (TimeUnitLayout) o;
+        return Arrays.equals(units, other.units) && Arrays.equals(widths, other.widths);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(units) + Arrays.hashCode(widths);
+    }
+}
@@ -0,0 +1,97 @@
+package mobi.upod.timedurationpicker;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PackedDurationTest {
+    private static final long MAX_DURATION = PackedDuration.MAX_HOURS * TimeDurationUtil.MILLIS_PER_HOUR + TimeDurationUtil.MILLIS_PER_HOUR - 1;
+
+    @Test
+    public void packsFields() {
+        final long packed = PackedDuration.pack(27, 45, 3, 250);
+        assertEquals(27, PackedDuration.hoursOf(packed));
+        assertEquals(45, PackedDuration.minutesOf(packed));
+        assertEquals(3, PackedDuration.secondsOf(packed));
+        assertEquals(250, PackedDuration.millisOf(packed));
+        assertEquals(PackedDuration.fromMillis(TimeDurationUtil.durationOf(27, 45, 3) + 250), packed);
+    }
+
+    @Test
+    public void roundTripsAndComparesLikeDurations() {
+        final Random random = new Random(42);
+        long previousDuration = 0;
+        long previousPacked = PackedDuration.ZERO;
+        for (int i = 0; i < 100000; ++i) {
+            final long duration = i == 0 ? MAX_DURATION : (random.nextLong() >>> 1) % MAX_DURATION;
+            final long packed = PackedDuration.fromMillis(duration);
+            assertEquals(duration, PackedDuration.toMillis(packed));
+            assertTrue(packed >= 0);
+            assertEquals(Long.signum(Long.valueOf(duration).compareTo(previousDuration)), Long.signum(Long.valueOf(packed).compareTo(previousPacked)));
+            previousDuration = duration;
+            previousPacked = packed;
+        }
+    }
+
+    @Test
+    public void unpacksLargestDuration() {
+        final TimeDurationFields fields = PackedDuration.unpack(PackedDuration.fromMillis(MAX_DURATION), new TimeDurationFields());
+        assertEquals(PackedDuration.MAX_HOURS, fields.hours);
+        assertEquals(59, fields.minutes);
+        assertEquals(59, fields.seconds);
+        assertEquals(999, fields.millis);
+        assertEquals(MAX_DURATION, fields.toMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooManyHours() {
+        PackedDuration.pack(PackedDuration.MAX_HOURS + 1, 0, 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooLargeSums() {
+        PackedDuration.add(PackedDuration.fromMillis(MAX_DURATION), PackedDuration.fromMillis(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeDurations() {
+        PackedDuration.fromMillis(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooLargeDurations() {
+        PackedDuration.fromMillis(MAX_DURATION + 1);
+    }
+
+    @Test
+    public void clampsTooLargeDurations() {
+        assertEquals(MAX_DURATION, PackedDuration.toMillis(PackedDuration.MAX));
+        assertEquals(PackedDuration.MAX, PackedDuration.fromMillisClamped(MAX_DURATION));
+        assertEquals(PackedDuration.MAX, PackedDuration.fromMillisClamped(MAX_DURATION + 1));
+        assertEquals(PackedDuration.MAX, PackedDuration.fromMillisClamped(Long.MAX_VALUE));
+        assertEquals(PackedDuration.fromMillis(65000), PackedDuration.fromMillisClamped(65000));
+    }
+
+    @Test
+    public void clampsDurationsOfWideDayFields() {
+        final TimeDurationInput input = new TimeDurationInput(new TimeUnitLayout(
+                new TimeDurationUnit[] { TimeDurationUnit.DAYS, TimeDurationUnit.HOURS },
+                new int[] { TimeUnitLayout.MAX_FIELD_DIGITS, 2 }));
+        input.pushNumber("99999999923");
+        assertTrue(input.getDuration() / TimeDurationUtil.MILLIS_PER_HOUR > PackedDuration.MAX_HOURS);
+        assertEquals(PackedDuration.MAX, PackedDuration.fromMillisClamped(input.getDuration()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void clampingRejectsNegativeDurations() {
+        PackedDuration.fromMillisClamped(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFieldsOutOfRange() {
+        PackedDuration.pack(0, 60, 0, 0);
+    }
+}
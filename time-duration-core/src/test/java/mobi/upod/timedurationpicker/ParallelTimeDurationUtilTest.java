@@ -0,0 +1,36 @@
+package mobi.upod.timedurationpicker;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ParallelTimeDurationUtilTest {
+
+    @Test
+    public void parallelDecomposeMatchesSequentialDecompose() {
+        final Random random = new Random(42);
+        final long[] durations = new long[4 * ParallelTimeDurationUtil.PARALLEL_THRESHOLD + 3];
+        for (int i = 0; i < durations.length; ++i)
+            durations[i] = random.nextInt(Integer.MAX_VALUE);
+        final int count = durations.length - 1;
+        final int[] hours = new int[durations.length];
+        final int[] minutes = new int[durations.length];
+        final int[] seconds = new int[durations.length];
+        final int[] expectedHours = new int[durations.length];
+        final int[] expectedMinutes = new int[durations.length];
+        final int[] expectedSeconds = new int[durations.length];
+        ParallelTimeDurationUtil.decompose(durations, 1, count, hours, minutes, seconds, 0);
+        TimeDurationUtil.decompose(durations, 1, count, expectedHours, expectedMinutes, expectedSeconds, 0);
+        assertArrayEquals(expectedHours, hours);
+        assertArrayEquals(expectedMinutes, minutes);
+        assertArrayEquals(expectedSeconds, seconds);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void parallelDecomposeChecksRanges() {
+        final int length = ParallelTimeDurationUtil.PARALLEL_THRESHOLD;
+        ParallelTimeDurationUtil.decompose(new long[length], 0, length, new int[length], new int[length], new int[length - 1], 0);
+    }
+}
@@ -0,0 +1,60 @@
+package mobi.upod.timedurationpicker;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TimeDurationFormatCacheTest {
+    @Test
+    public void returnsCachedStrings() {
+        final TimeDurationFormatCache cache = new TimeDurationFormatCache(4);
+        final String formatted = cache.format(65000, TimeDurationUtil.FORMAT_MINUTES_SECONDS);
+        assertEquals("1:05", formatted);
+        assertSame(formatted, cache.format(65000, TimeDurationUtil.FORMAT_MINUTES_SECONDS));
+        assertEquals("0:01:05", cache.format(65000, TimeDurationUtil.FORMAT_HOURS_MINUTES_SECONDS));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void staysCorrectWhileEvicting() {
+        final TimeDurationFormatCache cache = new TimeDurationFormatCache(16);
+        final Random random = new Random(42);
+        for (int i = 0; i < 100000; ++i) {
+            final long duration = random.nextInt(64) * 1000L;
+            final int format = random.nextInt(TimeDurationUtil.FORMAT_MINUTES_SECONDS_MILLIS + 1);
+            assertEquals(TimeDurationUtil.format(duration, format), cache.format(duration, format));
+            assertTrue(cache.size() <= cache.getCapacity());
+        }
+        assertEquals(100000, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    public void clearRemovesEntries() {
+        final TimeDurationFormatCache cache = new TimeDurationFormatCache();
+        cache.format(1000, TimeDurationUtil.FORMAT_SECONDS);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals("1", cache.format(1000, TimeDurationUtil.FORMAT_SECONDS));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void utilFormatsUsingSharedCache() {
+        final String formatted = TimeDurationUtil.formatCached(3723000, TimeDurationUtil.FORMAT_HOURS_MINUTES_SECONDS);
+        assertEquals("1:02:03", formatted);
+        assertSame(formatted, TimeDurationUtil.formatCached(3723000, TimeDurationUtil.FORMAT_HOURS_MINUTES_SECONDS));
+        assertSame(formatted, TimeDurationUtil.getSharedFormatCache()
+                .format(3723000, TimeDurationUtil.FORMAT_HOURS_MINUTES_SECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidCapacity() {
+        new TimeDurationFormatCache(0);
+    }
+}
@@ -0,0 +1,219 @@
+package mobi.upod.timedurationpicker;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TimeDurationInputTest {
+    private TimeDurationInput input;
+    private int changes;
+
+    @Before
+    public void setUp() {
+        input = new TimeDurationInput();
+        changes = 0;
+        input.setOnInputChangedListener(new TimeDurationInput.OnInputChangedListener() {
+            @Override
+            public void onInputChanged(TimeDurationInput input) {
+                ++changes;
+            }
+        });
+    }
+
+    @Test
+    public void shiftsDigitsThroughFields() {
+        input.pushNumber("130");
+        assertEquals(90000, input.getDuration());
+        assertField(0, "0000");
+        assertField(1, "01");
+        assertField(2, "30");
+
+        input.pushNumber("00");
+        assertEquals(TimeDurationUtil.durationOf(1, 30, 0), input.getDuration());
+        assertEquals(13000, input.getDigits());
+        assertEquals(5, input.getDigitCount());
+    }
+
+    @Test
+    public void ignoresLeadingZerosAndSurplusDigits() {
+        input.pushNumber("00");
+        assertEquals(0, input.getDigitCount());
+        input.pushNumber("12345678");
+        input.pushDigit('9');
+        assertEquals(8, input.getDigitCount());
+        assertEquals(TimeDurationUtil.durationOf(1234, 56, 78), input.getDuration());
+    }
+
+    @Test
+    public void popsDigits() {
+        input.pushNumber("1234");
+        input.popDigit();
+        assertEquals(TimeDurationUtil.durationOf(0, 1, 23), input.getDuration());
+        input.popDigit();
+        input.popDigit();
+        input.popDigit();
+        input.popDigit();
+        assertEquals(0, input.getDuration());
+        assertEquals(0, input.getDigitCount());
+    }
+
+    @Test
+    public void setsDuration() {
+        input.setDuration(TimeDurationUtil.durationOf(27, 45, 3) + 999);
+        assertEquals(TimeDurationUtil.durationOf(27, 45, 3), input.getDuration());
+        input.setDuration(10000 * TimeDurationUtil.MILLIS_PER_HOUR);
+        assertEquals(TimeDurationUtil.durationOf(9999, 99, 99), input.getDuration());
+        input.setPackedDuration(PackedDuration.pack(1, 2, 3, 0));
+        assertEquals(TimeDurationUtil.durationOf(1, 2, 3), input.getDuration());
+    }
+
+    @Test
+    public void rejectsNegativeDurationsWithoutChangingState() {
+        input.setDuration(65000);
+        try {
+            input.setDuration(-1000);
+            fail("Accepted a negative duration");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(65000, input.getDuration());
+        input.setTimeUnitLayout(TimeUnitLayout.MINUTES_SECONDS);
+        assertEquals(65000, input.getDuration());
+    }
+
+    @Test
+    public void readsNonAsciiDigits() {
+        // Arabic-Indic digits
+        input.pushDigit('\u0661');
+        input.pushNumber("\u0663\u0660");
+        assertEquals(TimeDurationUtil.durationOf(0, 1, 30), input.getDuration());
+        assertField(1, "01");
+        assertField(2, "30");
+        input.popDigit();
+        assertEquals(13000, input.getDuration());
+        assertField(2, "13");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonDigitsInNumbers() {
+        input.pushNumber("1a");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonDigits() {
+        input.pushDigit('x');
+    }
+
+    @Test
+    public void changingLayoutReappliesLastDuration() {
+        input.setDuration(TimeDurationUtil.durationOf(0, 1, 5) + 250);
+        input.pushDigit('1');
+        input.setTimeUnitLayout(TimeUnitLayout.MINUTES_SECONDS_MILLIS);
+        assertEquals(TimeDurationUtil.durationOf(0, 1, 5) + 250, input.getDuration());
+        assertField(2, "250");
+    }
+
+    @Test
+    public void restoresState() {
+        input.setTimeUnitLayout(TimeUnitLayout.DAYS_HOURS_MINUTES_SECONDS);
+        input.setDuration(TimeDurationUtil.MILLIS_PER_DAY);
+        input.pushNumber("42");
+
+        final TimeDurationInput restored = new TimeDurationInput();
+        restored.restore(input.getTimeUnitLayout(), input.getBaseDuration(), input.getDigits(), input.getDigitCount());
+        assertEquals(input.getDuration(), restored.getDuration());
+        assertEquals(input.getDigitCount(), restored.getDigitCount());
+        restored.popDigit();
+        input.popDigit();
+        assertEquals(input.getDuration(), restored.getDuration());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidState() {
+        input.restore(TimeUnitLayout.MINUTES_SECONDS, 0, 12345, 5);
+    }
+
+    @Test
+    public void reportsEachInputOnce() {
+        input.pushDigit('1');
+        input.pushNumber("23");
+        input.popDigit();
+        input.clear();
+        input.setDuration(1000);
+        input.setTimeUnitLayout(TimeUnitLayout.HOURS_MINUTES);
+        assertEquals(5, changes);
+    }
+
+    @Test
+    public void reportsChangedFieldDigitsOnly() {
+        final char[] hours = new char[4];
+        final char[] seconds = new char[2];
+        input.getFieldDigits(0, hours);
+        input.getFieldDigits(2, seconds);
+        input.pushDigit('5');
+        assertFalse(input.getFieldDigits(0, hours));
+        assertTrue(input.getFieldDigits(2, seconds));
+        assertArrayEquals("05".toCharArray(), seconds);
+    }
+
+    /**
+     * Typing must not allocate, as the picker renders after each key press.
+     */
+    @Test
+    public void typingDoesNotAllocate() throws Exception {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final Method allocatedBytes = allocatedBytesMethod(threads);
+        Assume.assumeTrue(allocatedBytes != null);
+
+        final char[] seconds = new char[2];
+        // warm up, so that class loading and compilation do not count
+        for (int i = 0; i < 20000; ++i)
+            typeAndRender(seconds);
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = (Long) allocatedBytes.invoke(threads, threadId);
+        for (int i = 0; i < 1000; ++i)
+            typeAndRender(seconds);
+        final long allocated = (Long) allocatedBytes.invoke(threads, threadId) - before;
+        // the measurement itself may allocate a little
+        assertTrue("Allocated " + allocated + " bytes for 12000 key presses", allocated < 1024);
+    }
+
+    private void typeAndRender(char[] seconds) {
+        for (int digit = 1; digit <= 6; ++digit) {
+            input.pushDigit((char) ('0' + digit));
+            input.getFieldDigits(2, seconds);
+            input.getDuration();
+        }
+        for (int digit = 1; digit <= 6; ++digit) {
+            input.popDigit();
+            input.getFieldDigits(2, seconds);
+            input.getDuration();
+        }
+    }
+
+    private static Method allocatedBytesMethod(ThreadMXBean threads) {
+        try {
+            final Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+            return method.getDeclaringClass().isInstance(threads) ? method : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void assertField(int field, String expected) {
+        final char[] digits = new char[expected.length()];
+        input.getFieldDigits(field, digits);
+        assertEquals(expected, new String(digits));
+    }
+}
@@ -0,0 +1,132 @@
+package mobi.upod.timedurationpicker;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TimeDurationUtilTest {
+    private static final long[] EDGE_CASES = {
+            0, 1, 999, 1000, 59999, 60000, 3599999, 3600000, 36000000, 359999999, -1, -999, -1000, -332001, -3600000
+    };
+
+    @Test
+    public void formatOverloadsMatchStringVersions() throws Exception {
+        final Random random = new Random(42);
+        final char[] buffer = new char[32];
+        for (int i = 0; i < 100000; ++i) {
+            final long duration = i < EDGE_CASES.length ? EDGE_CASES[i] : random.nextInt() / 10;
+            for (int format = TimeDurationUtil.FORMAT_HOURS_MINUTES_SECONDS; format <= TimeDurationUtil.FORMAT_MINUTES_SECONDS_MILLIS; ++format) {
+                final String expected = TimeDurationUtil.format(duration, format);
+                final StringBuilder builder = new StringBuilder();
+                final int length = format(duration, format, builder, buffer);
+                assertEquals(expected, builder.toString());
+                assertEquals(expected, new String(buffer, 0, length));
+            }
+        }
+    }
+
+    @Test
+    public void decompose() {
+        final TimeDurationFields fields = TimeDurationUtil.decompose(TimeDurationUtil.durationOf(27, 45, 3) + 250, new TimeDurationFields());
+        assertEquals(27, fields.hours);
+        assertEquals(45, fields.minutes);
+        assertEquals(3, fields.seconds);
+        assertEquals(250, fields.millis);
+    }
+
+    @Test
+    public void bulkDecomposeMatchesFieldAccessors() {
+        final Random random = new Random(42);
+        final long[] durations = new long[1000];
+        for (int i = 0; i < durations.length; ++i)
+            durations[i] = random.nextInt(Integer.MAX_VALUE);
+        final int[] hours = new int[durations.length + 1];
+        final int[] minutes = new int[durations.length + 1];
+        final int[] seconds = new int[durations.length + 1];
+        TimeDurationUtil.decompose(durations, 0, durations.length, hours, minutes, seconds, 1);
+        for (int i = 0; i < durations.length; ++i) {
+            assertEquals(TimeDurationUtil.hoursOf(durations[i]), hours[i + 1]);
+            assertEquals(TimeDurationUtil.minutesInHourOf(durations[i]), minutes[i + 1]);
+            assertEquals(TimeDurationUtil.secondsInMinuteOf(durations[i]), seconds[i + 1]);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void bulkDecomposeChecksRanges() {
+        TimeDurationUtil.decompose(new long[4], 2, 3, new int[4], new int[4], new int[4], 0);
+    }
+
+    @Test
+    public void parseClockFormats() {
+        assertEquals(5000, TimeDurationUtil.parseDuration("5"));
+        assertEquals(5250, TimeDurationUtil.parseDuration("5.25"));
+        assertEquals(65000, TimeDurationUtil.parseDuration("1:05"));
+        assertEquals(3723000, TimeDurationUtil.parseDuration("1:02:03"));
+        assertEquals(45296789, TimeDurationUtil.parseDuration(" 12:34:56.789 "));
+    }
+
+    @Test
+    public void parseUnitAndIsoFormats() {
+        assertEquals(TimeDurationUtil.durationOf(1, 30, 0), TimeDurationUtil.parseDuration("1h30m"));
+        assertEquals(2 * TimeDurationUtil.MILLIS_PER_DAY + TimeDurationUtil.durationOf(4, 30, 15) + 250, TimeDurationUtil.parseDuration("2d 4h 30m 15s 250ms"));
+        assertEquals(TimeDurationUtil.durationOf(1, 30, 0), TimeDurationUtil.parseDuration("PT1H30M"));
+        assertEquals(2 * TimeDurationUtil.MILLIS_PER_DAY + 500, TimeDurationUtil.parseDuration("P2DT0.5S"));
+    }
+
+    @Test
+    public void parseRejectsMalformedInput() {
+        for (String text : new String[] { "", " ", "1:5", "1:2:03", "1:005", "0:60", "1:00:00:00", ":05", "1:", "30m1h", "1x", "PT", "-5" }) {
+            try {
+                TimeDurationUtil.parseDuration(text);
+                fail("Accepted \"" + text + "\"");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void parseRanges() {
+        final String text = "x1:02:03x";
+        assertEquals(3723000, TimeDurationUtil.parseDuration(text, 1, 7));
+        assertEquals(3723000, TimeDurationUtil.parseDuration(text.toCharArray(), 1, 7));
+        final ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(Charset.forName("US-ASCII")));
+        assertEquals(3723000, TimeDurationUtil.parseDuration(bytes, 1, 7));
+        assertEquals(0, bytes.position());
+    }
+
+    @Test
+    public void parseReadsFormattedDurations() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 10000; ++i) {
+            final long duration = random.nextInt(Integer.MAX_VALUE);
+            assertEquals(duration / 1000 * 1000, TimeDurationUtil.parseDuration(TimeDurationUtil.formatHoursMinutesSeconds(duration)));
+            assertEquals(duration % TimeDurationUtil.MILLIS_PER_HOUR, TimeDurationUtil.parseDuration(TimeDurationUtil.formatMinutesSecondsMillis(duration % TimeDurationUtil.MILLIS_PER_HOUR)));
+        }
+    }
+
+    private static int format(long duration, int format, StringBuilder builder, char[] buffer) {
+        switch (format) {
+            case TimeDurationUtil.FORMAT_HOURS_MINUTES_SECONDS:
+                TimeDurationUtil.formatHoursMinutesSeconds(duration, builder);
+                return TimeDurationUtil.formatHoursMinutesSeconds(duration, buffer, 0);
+            case TimeDurationUtil.FORMAT_MINUTES_SECONDS:
+                TimeDurationUtil.formatMinutesSeconds(duration, builder);
+                return TimeDurationUtil.formatMinutesSeconds(duration, buffer, 0);
+            case TimeDurationUtil.FORMAT_SECONDS:
+                TimeDurationUtil.formatSeconds(duration, builder);
+                return TimeDurationUtil.formatSeconds(duration, buffer, 0);
+            case TimeDurationUtil.FORMAT_SECONDS_MILLIS:
+                TimeDurationUtil.formatSecondsMillis(duration, builder);
+                return TimeDurationUtil.formatSecondsMillis(duration, buffer, 0);
+            default:
+                TimeDurationUtil.formatMinutesSecondsMillis(duration, builder);
+                return TimeDurationUtil.formatMinutesSecondsMillis(duration, buffer, 0);
+        }
+    }
+}
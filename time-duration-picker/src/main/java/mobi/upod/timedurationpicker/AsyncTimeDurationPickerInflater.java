@@ -0,0 +1,154 @@
+package mobi.upod.timedurationpicker;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+
+/**
+ * Constructs {@link TimeDurationPicker} instances on a background thread, similar to the support library's
+ * {@code AsyncLayoutInflater}.
+ *
+ * Building the picker's view hierarchy, looking up its children and applying its style happens on a shared background
+ * thread, so only attaching the picker is left to the main thread. The callback is always invoked on the main thread.
+ * If a picker cannot be constructed in the background, it is constructed on the main thread as a fallback.
+ *
+ * This comes with the same limitations as {@code AsyncLayoutInflater}:
+ * <ul>
+ *     <li>The layouts are inflated without the {@code LayoutInflater.Factory2} of the context. With appcompat a picker
+ *     constructed in the background therefore differs from one inflated on the main thread: its buttons and text views
+ *     are the framework widgets, not the appcompat variants, so appcompat's tinting and text appearance handling do not
+ *     apply to them. Use pickers inflated on the main thread, if they have to match exactly.</li>
+ *     <li>{@code LayoutInflater} caches the constructors of the inflated views in a static map that is not thread safe.
+ *     All background inflation runs on a single shared thread, but inflation on the main thread may still touch the
+ *     cache at the same time. This is the same race {@code AsyncLayoutInflater} accepts; in the worst case a
+ *     constructor is looked up twice.</li>
+ * </ul>
+ *
+ * @see TimeDurationPickerPool#prewarmInBackground(int)
+ */
+public class AsyncTimeDurationPickerInflater {
+    private static final String TAG = "AsyncPickerInflater";
+    private static HandlerThread inflaterThread = null;
+    private static Handler inflaterHandler = null;
+
+    private final Context context;
+    private final LayoutInflater inflater;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Implement this interface to receive pickers constructed in the background.
+     */
+    public interface OnPickerInflatedListener {
+        /**
+         * Called on the main thread when the picker is ready.
+         * @param picker the constructed picker, which is not attached to any parent yet.
+         */
+        void onPickerInflated(TimeDurationPicker picker);
+    }
+
+    /**
+     * Creates an inflater for the specified context.
+     * @param context the context the pickers are created with
+     */
+    public AsyncTimeDurationPickerInflater(Context context) {
+        this.context = context;
+        this.inflater = new BasicInflater(context);
+    }
+
+    /**
+     * Constructs a picker using the dialog style in the background.
+     * @param callback the callback to receive the picker on the main thread
+     */
+    public void inflate(OnPickerInflatedListener callback) {
+        inflate(R.layout.time_duration_picker_dialog, callback);
+    }
+
+    /**
+     * Inflates a picker from the specified layout in the background.
+     * @param layoutResId layout resource whose root element is a {@link TimeDurationPicker}
+     * @param callback the callback to receive the picker on the main thread
+     */
+    public void inflate(final int layoutResId, final OnPickerInflatedListener callback) {
+        getInflaterHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                TimeDurationPicker picker = null;
+                try {
+                    picker = (TimeDurationPicker) inflater.inflate(layoutResId, null, false);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Failed to inflate picker in the background, falling back to the main thread", e);
+                }
+                deliver(picker, layoutResId, callback);
+            }
+        });
+    }
+
+    private void deliver(final TimeDurationPicker backgroundPicker, final int layoutResId,
+                         final OnPickerInflatedListener callback) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                final TimeDurationPicker picker = backgroundPicker != null ?
+                        backgroundPicker :
+                        (TimeDurationPicker) LayoutInflater.from(context).inflate(layoutResId, null, false);
+                callback.onPickerInflated(picker);
+            }
+        });
+    }
+
+    /**
+     * Gets the inflater to be used for the picker's own content. Off the main thread the context's inflater must not be
+     * used, as it is neither thread safe nor free of factories touching the UI.
+     * @param context the context to inflate with
+     * @return the inflater suitable for the current thread.
+     */
+    static LayoutInflater getInflaterForCurrentThread(Context context) {
+        return Looper.myLooper() == Looper.getMainLooper() ? LayoutInflater.from(context) : new BasicInflater(context);
+    }
+
+    private static synchronized Handler getInflaterHandler() {
+        if (inflaterHandler == null) {
+            inflaterThread = new HandlerThread("TimeDurationPickerInflater", Process.THREAD_PRIORITY_BACKGROUND);
+            inflaterThread.start();
+            inflaterHandler = new Handler(inflaterThread.getLooper());
+        }
+        return inflaterHandler;
+    }
+
+    /**
+     * Inflater without any factories, that resolves the unqualified framework views used by the picker's layouts.
+     */
+    private static class BasicInflater extends LayoutInflater {
+        private static final String[] CLASS_PREFIXES = { "android.widget.", "android.webkit.", "android.app." };
+
+        BasicInflater(Context context) {
+            super(context);
+        }
+
+        @Override
+        public LayoutInflater cloneInContext(Context newContext) {
+            return new BasicInflater(newContext);
+        }
+
+        @Override
+        protected View onCreateView(String name, AttributeSet attrs) throws ClassNotFoundException {
+            for (String prefix : CLASS_PREFIXES) {
+                try {
+                    final View view = createView(name, prefix, attrs);
+                    if (view != null) {
+                        return view;
+                    }
+                } catch (ClassNotFoundException e) {
+                    // try the next prefix
+                }
+            }
+            return super.onCreateView(name, attrs);
+        }
+    }
+}
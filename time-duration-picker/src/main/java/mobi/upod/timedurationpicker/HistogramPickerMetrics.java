@@ -0,0 +1,95 @@
+package mobi.upod.timedurationpicker;
+
+/**
+ * {@link PickerMetrics} collecting the number of events and a latency histogram for each event type.
+ *
+ * The histograms use power of two buckets: bucket {@code 0} counts events taking less than a microsecond (more
+ * precisely 1024 nanoseconds) and each following bucket covers twice the time of the previous one. Recording does
+ * not allocate anything. The numbers can be read from any thread.
+ */
+public class HistogramPickerMetrics implements PickerMetrics {
+    /** The number of buckets of each histogram; the last one counts everything taking 2^30 nanoseconds or more. */
+    public static final int BUCKET_COUNT = 22;
+    private static final int FIRST_BUCKET_SHIFT = 10;
+
+    private final long[] counts = new long[EVENT_COUNT];
+    private final long[] totalNanos = new long[EVENT_COUNT];
+    private final long[] maxNanos = new long[EVENT_COUNT];
+    private final long[][] histograms = new long[EVENT_COUNT][BUCKET_COUNT];
+
+    @Override
+    public synchronized void record(int event, long nanos) {
+        ++counts[event];
+        totalNanos[event] += nanos;
+        if (nanos > maxNanos[event]) {
+            maxNanos[event] = nanos;
+        }
+        ++histograms[event][bucketOf(nanos)];
+    }
+
+    /**
+     * Gets the number of recorded events.
+     * @param event one of the {@code EVENT_*} constants
+     * @return the number of events of the type.
+     */
+    public synchronized long getCount(int event) {
+        return counts[event];
+    }
+
+    /**
+     * Gets the accumulated time of the recorded events.
+     * @param event one of the {@code EVENT_*} constants
+     * @return the total time of all events of the type in nanoseconds.
+     */
+    public synchronized long getTotalNanos(int event) {
+        return totalNanos[event];
+    }
+
+    /**
+     * Gets the longest time of the recorded events.
+     * @param event one of the {@code EVENT_*} constants
+     * @return the time of the slowest event of the type in nanoseconds.
+     */
+    public synchronized long getMaxNanos(int event) {
+        return maxNanos[event];
+    }
+
+    /**
+     * Copies the latency histogram of an event type.
+     * @param event one of the {@code EVENT_*} constants
+     * @param buckets array of at least {@link #BUCKET_COUNT} elements receiving the number of events per bucket
+     * @return the specified array.
+     */
+    public synchronized long[] getHistogram(int event, long[] buckets) {
+        System.arraycopy(histograms[event], 0, buckets, 0, BUCKET_COUNT);
+        return buckets;
+    }
+
+    /**
+     * Gets the lower bound of a histogram bucket.
+     * @param bucket index of the bucket
+     * @return the shortest time counted by the bucket in nanoseconds.
+     */
+    public static long getBucketStartNanos(int bucket) {
+        return bucket == 0 ? 0 : 1L << (FIRST_BUCKET_SHIFT + bucket - 1);
+    }
+
+    /**
+     * Resets all numbers to zero.
+     */
+    public synchronized void reset() {
+        for (int event = 0; event < EVENT_COUNT; ++event) {
+            counts[event] = 0;
+            totalNanos[event] = 0;
+            maxNanos[event] = 0;
+            for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket) {
+                histograms[event][bucket] = 0;
+            }
+        }
+    }
+
+    private static int bucketOf(long nanos) {
+        final int bucket = 64 - Long.numberOfLeadingZeros(nanos >>> FIRST_BUCKET_SHIFT);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+}
@@ -0,0 +1,445 @@
+package mobi.upod.timedurationpicker;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Bundle;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.widget.Button;
+
+import java.util.List;
+
+/**
+ * Number pad that draws all of its keys itself instead of using a separate {@code Button} for each of them.
+ *
+ * This is used by {@link TimeDurationPicker} when the {@link R.styleable#TimeDurationPicker_flatNumPad} attribute is
+ * set and reduces the number of views the picker consists of considerably. Touch feedback is provided by the theme's
+ * {@code selectableItemBackgroundBorderless} drawable and each key is exposed as a virtual view to accessibility
+ * services. Digits can be typed using a hardware keyboard and the keys can be selected and clicked using the D-pad
+ * while the number pad is focused.
+ */
+public class NumPadView extends View {
+    private static final int COLUMNS = 3;
+    private static final int ROWS = 4;
+    private static final int NO_KEY = -1;
+    private static final String[] KEYS = { "1", "2", "3", "4", "5", "6", "7", "8", "9", null, "0", "00" };
+    private static final int[] TEXT_APPEARANCE_ATTRIBUTES = {
+            android.R.attr.textSize, android.R.attr.textStyle, android.R.attr.textColor
+    };
+    private static final int[] KEY_BACKGROUND_ATTRIBUTES = { R.attr.selectableItemBackgroundBorderless };
+    private static final int[] STATE_PRESSED = { android.R.attr.state_pressed, android.R.attr.state_enabled };
+    private static final int[] STATE_FOCUSED = { android.R.attr.state_focused, android.R.attr.state_enabled };
+    private static final int[] STATE_RELEASED = { android.R.attr.state_enabled };
+
+    private final TextPaint textPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final Rect keyBounds = new Rect();
+    private final KeyAccessibilityHelper accessibilityHelper;
+    private final Drawable keyBackground;
+    private ColorStateList textColors = null;
+    private int keyPadding;
+    private int pressedKey = NO_KEY;
+    private int focusedKey = 0;
+    private OnKeyClickListener keyClickListener = null;
+
+    /**
+     * Implement this interface to get informed about clicked keys.
+     */
+    public interface OnKeyClickListener {
+        /**
+         * Called when the user clicked a key.
+         * @param view the num pad the key belongs to
+         * @param digits the digits of the clicked key
+         */
+        void onKeyClick(NumPadView view, CharSequence digits);
+    }
+
+    public NumPadView(Context context) {
+        this(context, null);
+    }
+
+    public NumPadView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        keyPadding = getResources().getDimensionPixelSize(R.dimen.numPadKeyPadding);
+        textPaint.setTextAlign(TextPaint.Align.CENTER);
+        setTextAppearance(context, R.style.TextAppearance_TimeDurationPicker_Button);
+
+        final TypedArray attributes = context.getTheme().obtainStyledAttributes(KEY_BACKGROUND_ATTRIBUTES);
+        try {
+            keyBackground = attributes.getDrawable(0);
+        } finally {
+            attributes.recycle();
+        }
+        if (keyBackground != null) {
+            keyBackground.setCallback(this);
+            keyBackground.setState(STATE_RELEASED);
+        }
+
+        accessibilityHelper = new KeyAccessibilityHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, accessibilityHelper);
+        setClickable(true);
+        setFocusable(true);
+    }
+
+    //
+    // public interface
+    //
+
+    /**
+     * Sets a listener to be informed about clicked keys.
+     * @param listener the listener to be informed or {@code null} if no one should be informed.
+     */
+    public void setOnKeyClickListener(OnKeyClickListener listener) {
+        keyClickListener = listener;
+    }
+
+    /**
+     * Sets the text appearance of the keys. Text size, style and color are supported.
+     * @param context the context to resolve the style with
+     * @param resId resource id of the style describing the text appearance.
+     */
+    public void setTextAppearance(Context context, int resId) {
+        final TypedArray attributes = context.getTheme().obtainStyledAttributes(resId, TEXT_APPEARANCE_ATTRIBUTES);
+        try {
+            if (attributes.hasValue(0)) {
+                textPaint.setTextSize(attributes.getDimensionPixelSize(0, 0));
+            }
+            if (attributes.hasValue(1)) {
+                textPaint.setTypeface(Typeface.create(Typeface.DEFAULT, attributes.getInt(1, Typeface.NORMAL)));
+            }
+            if (attributes.hasValue(2)) {
+                textColors = attributes.getColorStateList(2);
+            }
+        } finally {
+            attributes.recycle();
+        }
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets the padding around the text of each key.
+     * @param padding padding in pixels
+     */
+    public void setKeyPadding(int padding) {
+        keyPadding = padding;
+        requestLayout();
+    }
+
+    /**
+     * Gets the padding around the text of each key.
+     * @return padding in pixels
+     */
+    public int getKeyPadding() {
+        return keyPadding;
+    }
+
+    /**
+     * Calculates the size a key needs to show its text including the key padding.
+     * @return the natural size of a single key in pixels.
+     */
+    public int getNaturalKeySize() {
+        final int textWidth = (int) Math.ceil(textPaint.measureText("0"));
+        final int textHeight = (int) Math.ceil(textPaint.descent() - textPaint.ascent());
+        return Math.max(textWidth, textHeight) + 2 * keyPadding;
+    }
+
+    //
+    // layouting and drawing
+    //
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int keySize = getNaturalKeySize();
+        setMeasuredDimension(
+                resolveSize(COLUMNS * keySize + getPaddingLeft() + getPaddingRight(), widthMeasureSpec),
+                resolveSize(ROWS * keySize + getPaddingTop() + getPaddingBottom(), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        // the background keeps the bounds of the last pressed key, so that its release animation can finish
+        if (keyBackground != null) {
+            keyBackground.draw(canvas);
+        }
+
+        textPaint.setColor(textColors != null ? textColors.getColorForState(getDrawableState(), textColors.getDefaultColor()) : 0xff000000);
+        final float baselineOffset = -(textPaint.ascent() + textPaint.descent()) / 2;
+        for (int key = 0; key < KEYS.length; ++key) {
+            if (KEYS[key] != null) {
+                getKeyBounds(key, keyBounds);
+                canvas.drawText(KEYS[key], keyBounds.exactCenterX(), keyBounds.exactCenterY() + baselineOffset, textPaint);
+            }
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(Drawable who) {
+        return who == keyBackground || super.verifyDrawable(who);
+    }
+
+    @Override
+    public void jumpDrawablesToCurrentState() {
+        super.jumpDrawablesToCurrentState();
+        if (keyBackground != null) {
+            keyBackground.jumpToCurrentState();
+        }
+    }
+
+    private void getKeyBounds(int key, Rect bounds) {
+        final int contentWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        final int contentHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        final int column = key % COLUMNS;
+        final int row = key / COLUMNS;
+        bounds.set(
+                getPaddingLeft() + column * contentWidth / COLUMNS,
+                getPaddingTop() + row * contentHeight / ROWS,
+                getPaddingLeft() + (column + 1) * contentWidth / COLUMNS,
+                getPaddingTop() + (row + 1) * contentHeight / ROWS);
+    }
+
+    private int getKeyAt(float x, float y) {
+        final int contentWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        final int contentHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        final float contentX = x - getPaddingLeft();
+        final float contentY = y - getPaddingTop();
+        if (contentX < 0 || contentY < 0 || contentX >= contentWidth || contentY >= contentHeight)
+            return NO_KEY;
+
+        final int key = (int) (contentY * ROWS / contentHeight) * COLUMNS + (int) (contentX * COLUMNS / contentWidth);
+        return KEYS[key] != null ? key : NO_KEY;
+    }
+
+    //
+    // input handling
+    //
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled())
+            return false;
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                setPressedKey(getKeyAt(event.getX(), event.getY()), event.getX(), event.getY());
+                return pressedKey != NO_KEY;
+            case MotionEvent.ACTION_MOVE:
+                if (pressedKey != NO_KEY && getKeyAt(event.getX(), event.getY()) != pressedKey) {
+                    setPressedKey(NO_KEY, event.getX(), event.getY());
+                } else if (pressedKey != NO_KEY && keyBackground != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                    keyBackground.setHotspot(event.getX(), event.getY());
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (pressedKey != NO_KEY) {
+                    final int key = pressedKey;
+                    setPressedKey(NO_KEY, event.getX(), event.getY());
+                    playSoundEffect(SoundEffectConstants.CLICK);
+                    performClick();
+                    onKeyClick(key);
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                setPressedKey(NO_KEY, event.getX(), event.getY());
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (isEnabled()) {
+            final int digitKey = getDigitKey(keyCode);
+            if (digitKey != NO_KEY) {
+                onKeyClick(digitKey);
+                return true;
+            }
+            switch (keyCode) {
+                case KeyEvent.KEYCODE_DPAD_LEFT:
+                    return moveFocusedKey(-1, 0);
+                case KeyEvent.KEYCODE_DPAD_RIGHT:
+                    return moveFocusedKey(1, 0);
+                case KeyEvent.KEYCODE_DPAD_UP:
+                    return moveFocusedKey(0, -1);
+                case KeyEvent.KEYCODE_DPAD_DOWN:
+                    return moveFocusedKey(0, 1);
+                case KeyEvent.KEYCODE_DPAD_CENTER:
+                case KeyEvent.KEYCODE_ENTER:
+                case KeyEvent.KEYCODE_NUMPAD_ENTER:
+                    if (event.getRepeatCount() == 0) {
+                        getKeyBounds(focusedKey, keyBounds);
+                        setPressedKey(focusedKey, keyBounds.exactCenterX(), keyBounds.exactCenterY());
+                    }
+                    return true;
+            }
+        }
+        return super.onKeyDown(keyCode, event);
+    }
+
+    @Override
+    public boolean onKeyUp(int keyCode, KeyEvent event) {
+        switch (keyCode) {
+            case KeyEvent.KEYCODE_DPAD_CENTER:
+            case KeyEvent.KEYCODE_ENTER:
+            case KeyEvent.KEYCODE_NUMPAD_ENTER:
+                if (pressedKey != NO_KEY) {
+                    final int key = pressedKey;
+                    setPressedKey(NO_KEY, 0, 0);
+                    playSoundEffect(SoundEffectConstants.CLICK);
+                    performClick();
+                    onKeyClick(key);
+                    return true;
+                }
+        }
+        return super.onKeyUp(keyCode, event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        if (!gainFocus && pressedKey != NO_KEY) {
+            setPressedKey(NO_KEY, 0, 0);
+        } else {
+            updateKeyBackground();
+            invalidate();
+        }
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return accessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    private void setPressedKey(int key, float x, float y) {
+        if (key == pressedKey)
+            return;
+
+        pressedKey = key;
+        if (keyBackground != null && key != NO_KEY && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            keyBackground.setHotspot(x, y);
+        }
+        updateKeyBackground();
+        invalidate();
+    }
+
+    /**
+     * Moves the background to the pressed key or, if no key is pressed, to the focused one while the view is focused.
+     */
+    private void updateKeyBackground() {
+        if (keyBackground == null)
+            return;
+
+        final boolean showFocus = pressedKey == NO_KEY && isFocused();
+        final int key = showFocus ? focusedKey : pressedKey;
+        if (key != NO_KEY) {
+            getKeyBounds(key, keyBounds);
+            keyBackground.setBounds(keyBounds);
+        }
+        keyBackground.setState(pressedKey != NO_KEY ? STATE_PRESSED : showFocus ? STATE_FOCUSED : STATE_RELEASED);
+    }
+
+    private boolean moveFocusedKey(int columnDelta, int rowDelta) {
+        int column = focusedKey % COLUMNS + columnDelta;
+        int row = focusedKey / COLUMNS + rowDelta;
+        // skip empty keys, leave the view at its edges
+        while (column >= 0 && column < COLUMNS && row >= 0 && row < ROWS) {
+            final int key = row * COLUMNS + column;
+            if (KEYS[key] != null) {
+                focusedKey = key;
+                updateKeyBackground();
+                invalidate();
+                return true;
+            }
+            column += columnDelta;
+            row += rowDelta;
+        }
+        return false;
+    }
+
+    private static int getDigitKey(int keyCode) {
+        final int digit;
+        if (keyCode >= KeyEvent.KEYCODE_0 && keyCode <= KeyEvent.KEYCODE_9) {
+            digit = keyCode - KeyEvent.KEYCODE_0;
+        } else if (keyCode >= KeyEvent.KEYCODE_NUMPAD_0 && keyCode <= KeyEvent.KEYCODE_NUMPAD_9) {
+            digit = keyCode - KeyEvent.KEYCODE_NUMPAD_0;
+        } else {
+            return NO_KEY;
+        }
+        return digit == 0 ? 10 : digit - 1;
+    }
+
+    private void onKeyClick(int key) {
+        if (keyClickListener != null) {
+            keyClickListener.onKeyClick(this, KEYS[key]);
+        }
+        accessibilityHelper.sendEventForVirtualView(key, AccessibilityEvent.TYPE_VIEW_CLICKED);
+    }
+
+    //
+    // accessibility
+    //
+
+    /**
+     * Exposes each key as a virtual view, so that accessibility services can discover and click them.
+     */
+    private class KeyAccessibilityHelper extends ExploreByTouchHelper {
+        private final Rect bounds = new Rect();
+
+        public KeyAccessibilityHelper(View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            final int key = getKeyAt(x, y);
+            return key != NO_KEY ? key : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            for (int key = 0; key < KEYS.length; ++key) {
+                if (KEYS[key] != null) {
+                    virtualViewIds.add(key);
+                }
+            }
+        }
+
+        @Override
+        protected void onPopulateEventForVirtualView(int virtualViewId, AccessibilityEvent event) {
+            event.setContentDescription(KEYS[virtualViewId]);
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, AccessibilityNodeInfoCompat node) {
+            getKeyBounds(virtualViewId, bounds);
+            node.setClassName(Button.class.getName());
+            node.setContentDescription(KEYS[virtualViewId]);
+            node.setBoundsInParent(bounds);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            node.setClickable(true);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, Bundle arguments) {
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                onKeyClick(virtualViewId);
+                return true;
+            }
+            return false;
+        }
+    }
+}
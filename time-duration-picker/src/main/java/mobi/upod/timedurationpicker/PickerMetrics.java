@@ -0,0 +1,33 @@
+package mobi.upod.timedurationpicker;
+
+/**
+ * Receives timings of the work done by a {@link TimeDurationPicker}, e.g. to forward them to some telemetry.
+ *
+ * Set an implementation using {@link TimeDurationPicker#setMetrics(PickerMetrics)}. Without metrics the picker does
+ * not even read the clock. {@link HistogramPickerMetrics} is a ready to use implementation collecting counters and
+ * latency histograms.
+ */
+public interface PickerMetrics {
+    /**
+     * Handling a key of the number pad, the backspace or the clear button until the display shows the result. The
+     * duration change listener is not included.
+     */
+    int EVENT_INPUT = 0;
+    /** Updating the texts of the display. */
+    int EVENT_DISPLAY_UPDATE = 1;
+    /** Measuring the picker. */
+    int EVENT_MEASURE = 2;
+    /** Laying out the picker. */
+    int EVENT_LAYOUT = 3;
+    /** Calling the {@link TimeDurationPicker.OnDurationChangedListener}. */
+    int EVENT_LISTENER = 4;
+    /** The number of events. */
+    int EVENT_COUNT = 5;
+
+    /**
+     * Called on the UI thread after the picker did some work.
+     * @param event one of the {@code EVENT_*} constants
+     * @param nanos the time the work took in nanoseconds
+     */
+    void record(int event, long nanos);
+}
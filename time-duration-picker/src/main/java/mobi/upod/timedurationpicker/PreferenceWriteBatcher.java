@@ -0,0 +1,93 @@
+package mobi.upod.timedurationpicker;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects preference writes and applies them in a single asynchronous commit.
+ *
+ * Binding a settings screen with many duration preferences or changing several of them at once would otherwise apply
+ * an editor for each single value. The writes are kept until the main thread processes its next message and are then
+ * applied using one editor per {@link SharedPreferences} instance. Pending values are visible through
+ * {@link #getPendingLong(SharedPreferences, String)} in the meantime.
+ *
+ * Must only be used from the main thread.
+ */
+final class PreferenceWriteBatcher {
+    private static PreferenceWriteBatcher instance = null;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<SharedPreferences, Map<String, Long>> pendingWrites = new HashMap<SharedPreferences, Map<String, Long>>();
+    private boolean flushScheduled = false;
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private PreferenceWriteBatcher() {
+    }
+
+    static PreferenceWriteBatcher getInstance() {
+        if (instance == null) {
+            instance = new PreferenceWriteBatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Schedules a value to be written with the next batch.
+     * @param preferences the preferences to write the value to
+     * @param key the key of the value
+     * @param value the value to write
+     * @throws NullPointerException if the preferences are {@code null}.
+     */
+    void putLong(SharedPreferences preferences, String key, long value) {
+        if (preferences == null)
+            throw new NullPointerException("preferences");
+        Map<String, Long> writes = pendingWrites.get(preferences);
+        if (writes == null) {
+            writes = new HashMap<String, Long>();
+            pendingWrites.put(preferences, writes);
+        }
+        writes.put(key, value);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            handler.post(flush);
+        }
+    }
+
+    /**
+     * Gets a value that has been scheduled but not yet written.
+     * @param preferences the preferences the value is written to
+     * @param key the key of the value
+     * @return the pending value or {@code null} if no write is pending for the key.
+     */
+    Long getPendingLong(SharedPreferences preferences, String key) {
+        final Map<String, Long> writes = pendingWrites.get(preferences);
+        return writes != null ? writes.get(key) : null;
+    }
+
+    /**
+     * Applies all pending writes now.
+     */
+    void flush() {
+        if (flushScheduled) {
+            flushScheduled = false;
+            handler.removeCallbacks(flush);
+        }
+        for (Map.Entry<SharedPreferences, Map<String, Long>> preferences : pendingWrites.entrySet()) {
+            final SharedPreferences.Editor editor = preferences.getKey().edit();
+            for (Map.Entry<String, Long> write : preferences.getValue().entrySet()) {
+                editor.putLong(write.getKey(), write.getValue());
+            }
+            editor.apply();
+        }
+        pendingWrites.clear();
+    }
+}
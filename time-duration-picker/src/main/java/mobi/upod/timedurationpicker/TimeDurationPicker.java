@@ -2,10 +2,16 @@ package mobi.upod.timedurationpicker;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.View;
 import android.widget.*;
 
@@ -21,34 +27,90 @@ import android.widget.*;
  * {@link R.styleable#TimeDurationPicker_clearIcon},
  * {@link R.styleable#TimeDurationPicker_separatorColor},
  * {@link R.styleable#TimeDurationPicker_durationDisplayBackground},
- * {@link R.styleable#TimeDurationPicker_numPadButtonPadding}
+ * {@link R.styleable#TimeDurationPicker_numPadButtonPadding},
+ * {@link R.styleable#TimeDurationPicker_flatNumPad}
  */
 public class TimeDurationPicker extends FrameLayout {
 
     public static final int HH_MM_SS = 0;
     public static final int HH_MM = 1;
     public static final int MM_SS = 2;
-
-    private int timeUnits = HH_MM_SS;
-
-    private final TimeDurationString input = new TimeDurationString();
+    public static final int SS_MS = 3;
+    public static final int MM_SS_MS = 4;
+    public static final int DD_HH_MM_SS = 5;
+
+    /** Informs the duration change listener synchronously about every single change. */
+    public static final long DELIVER_IMMEDIATELY = 0;
+    /** Informs the duration change listener at most once per frame about the latest duration. */
+    public static final long DELIVER_ON_FRAME = -1;
+    /** Frame delay used for {@link #DELIVER_ON_FRAME} on devices without {@link Choreographer}. */
+    private static final long FALLBACK_FRAME_DELAY = 16;
+    /** Start time of a metric that is not recorded, as {@link System#nanoTime()} may return any value. */
+    private static final long NO_METRIC = Long.MIN_VALUE;
+
+    private TimeUnitLayout timeUnitLayout = TimeUnitLayout.HOURS_MINUTES_SECONDS;
+
+    private final TimeDurationInput input = new TimeDurationInput();
     private final View displayRow;
     private final View durationView;
-    private final TextView hoursView;
-    private final TextView minutesView;
-    private final TextView secondsView;
+    /** Display views of all units, indexed by {@link TimeDurationUnit#ordinal()}. */
     private final TextView[] displayViews;
+    /** Label views of all units, indexed by {@link TimeDurationUnit#ordinal()}. */
     private final TextView[] unitLabelViews;
+    /** Text buffers of the fields of the current time unit layout. */
+    private char[][] fieldTexts = new char[0][];
     private final ImageButton backspaceButton;
     private final ImageButton clearButton;
     private final View separatorView;
     private final View numPad;
+    private final NumPadView flatNumPad;
     private final Button[] numPadButtons;
     private final Button numPadMeasureButton;
     private OnDurationChangedListener changeListener = null;
-    private TextView secondsLabel;
-    private TextView hoursLabel;
-    private TextView minutesLabel;
+    private PickerMetrics metrics = null;
+    private long changeDeliveryDelay = DELIVER_IMMEDIATELY;
+    // posted to the main looper instead of the view, which would hold it back while detached before Android N
+    private final Handler changeDeliveryHandler = new Handler(Looper.getMainLooper());
+    private boolean changeDeliveryPending = false;
+    private long lastDeliveredDuration = Long.MIN_VALUE;
+    private final Runnable changeDelivery = new Runnable() {
+        @Override
+        public void run() {
+            deliverPendingDurationChange();
+        }
+    };
+    private FrameRunner frameChangeDelivery = null;
+    /** Start of the input being handled for {@link PickerMetrics#EVENT_INPUT}, see #startInputMetric(). */
+    private long inputStart = NO_METRIC;
+    // ticking, see #startCountdown() and #startCountUp()
+    private int tickDirection = 0;
+    private long tickStartDuration;
+    private long tickStartTime;
+    private boolean tickScheduled = false;
+    private boolean showingTick = false;
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            onTick();
+        }
+    };
+    private FrameRunner frameTick = null;
+    private OnCountdownFinishedListener countdownFinishedListener = null;
+    private int updateDepth = 0;
+    private boolean pendingUnitsUpdate = false;
+    private boolean pendingDisplayUpdate = false;
+    private boolean pendingDurationChange = false;
+    // text appearances applied last, see #getSettings()
+    private int displayTextAppearance = 0;
+    private int unitTextAppearance = 0;
+    private int buttonTextAppearance = 0;
+
+    // measurement cache, see #onMeasure
+    private boolean measureCacheValid = false;
+    private float cachedFontScale;
+    private int cachedMinDisplayWidth;
+    private int cachedMinDisplayHeight;
+    private int cachedMinNumPadButtonSize;
 
     /**
      * Implement this interface and set it using #setOnDurationChangeListener to get informed about input changes.
@@ -62,6 +124,18 @@ public class TimeDurationPicker extends FrameLayout {
         void onDurationChanged(TimeDurationPicker view, long duration);
     }
 
+    /**
+     * Implement this interface and set it using #setOnCountdownFinishedListener to get informed when a countdown
+     * started by #startCountdown reaches zero.
+     */
+    public interface OnCountdownFinishedListener {
+        /**
+         * Called when the countdown reached zero.
+         * @param view the view that fired the event
+         */
+        void onCountdownFinished(TimeDurationPicker view);
+    }
+
     public TimeDurationPicker(Context context) {
         this(context, null);
     }
@@ -72,22 +146,30 @@ public class TimeDurationPicker extends FrameLayout {
 
     public TimeDurationPicker(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        inflate(context, R.layout.time_duration_picker, this);
+        final TypedArray attributes = context.getTheme().obtainStyledAttributes(attrs, R.styleable.TimeDurationPicker, defStyleAttr, 0);
+        final boolean useFlatNumPad = attributes.getBoolean(R.styleable.TimeDurationPicker_flatNumPad, false);
+        AsyncTimeDurationPickerInflater.getInflaterForCurrentThread(context)
+                .inflate(useFlatNumPad ? R.layout.time_duration_picker_flat : R.layout.time_duration_picker, this);
 
         //
         // find views
         //
         displayRow = findViewById(R.id.displayRow);
         durationView = findViewById(R.id.duration);
-        hoursView = (TextView) findViewById(R.id.hours);
-        minutesView = (TextView) findViewById(R.id.minutes);
-        secondsView = (TextView) findViewById(R.id.seconds);
-        displayViews = new TextView[] { hoursView, minutesView, secondsView };
-
-        hoursLabel = (TextView) findViewById(R.id.hoursLabel);
-        minutesLabel = (TextView) findViewById(R.id.minutesLabel);
-        secondsLabel = (TextView) findViewById(R.id.secondsLabel);
-        unitLabelViews = new TextView[] { hoursLabel, minutesLabel, secondsLabel };
+        displayViews = new TextView[] {
+                (TextView) findViewById(R.id.days),
+                (TextView) findViewById(R.id.hours),
+                (TextView) findViewById(R.id.minutes),
+                (TextView) findViewById(R.id.seconds),
+                (TextView) findViewById(R.id.millis)
+        };
+        unitLabelViews = new TextView[] {
+                (TextView) findViewById(R.id.daysLabel),
+                (TextView) findViewById(R.id.hoursLabel),
+                (TextView) findViewById(R.id.minutesLabel),
+                (TextView) findViewById(R.id.secondsLabel),
+                (TextView) findViewById(R.id.millisLabel)
+        };
 
         backspaceButton = (ImageButton) findViewById(R.id.backspace);
         clearButton = (ImageButton) findViewById(R.id.clear);
@@ -95,24 +177,32 @@ public class TimeDurationPicker extends FrameLayout {
         separatorView = findViewById(R.id.separator);
 
         numPad = findViewById(R.id.numPad);
-        numPadMeasureButton = (Button) findViewById(R.id.numPadMeasure);
-        numPadButtons = new Button[] {
-                (Button) findViewById(R.id.numPad1), (Button) findViewById(R.id.numPad2), (Button) findViewById(R.id.numPad3),
-                (Button) findViewById(R.id.numPad4), (Button) findViewById(R.id.numPad5), (Button) findViewById(R.id.numPad6),
-                (Button) findViewById(R.id.numPad7), (Button) findViewById(R.id.numPad8), (Button) findViewById(R.id.numPad9),
-                (Button) findViewById(R.id.numPad0), (Button) findViewById(R.id.numPad00)
-        };
+        if (useFlatNumPad) {
+            flatNumPad = (NumPadView) numPad;
+            numPadMeasureButton = null;
+            numPadButtons = new Button[0];
+        } else {
+            flatNumPad = null;
+            numPadMeasureButton = (Button) findViewById(R.id.numPadMeasure);
+            numPadButtons = new Button[] {
+                    (Button) findViewById(R.id.numPad1), (Button) findViewById(R.id.numPad2), (Button) findViewById(R.id.numPad3),
+                    (Button) findViewById(R.id.numPad4), (Button) findViewById(R.id.numPad5), (Button) findViewById(R.id.numPad6),
+                    (Button) findViewById(R.id.numPad7), (Button) findViewById(R.id.numPad8), (Button) findViewById(R.id.numPad9),
+                    (Button) findViewById(R.id.numPad0), (Button) findViewById(R.id.numPad00)
+            };
+        }
 
         //
         // apply style
         //
-        final TypedArray attributes = context.getTheme().obtainStyledAttributes(attrs, R.styleable.TimeDurationPicker, defStyleAttr, 0);
         try {
             applyPadding(attributes, R.styleable.TimeDurationPicker_numPadButtonPadding, numPadButtons);
+            applyKeyPadding(attributes, R.styleable.TimeDurationPicker_numPadButtonPadding, flatNumPad);
 
-            applyTextAppearance(context, attributes, R.styleable.TimeDurationPicker_textAppearanceDisplay, displayViews);
-            applyTextAppearance(context, attributes, R.styleable.TimeDurationPicker_textAppearanceButton, numPadButtons);
-            applyTextAppearance(context, attributes, R.styleable.TimeDurationPicker_textAppearanceUnit, unitLabelViews);
+            displayTextAppearance = applyTextAppearance(context, attributes, R.styleable.TimeDurationPicker_textAppearanceDisplay, displayViews);
+            buttonTextAppearance = applyTextAppearance(context, attributes, R.styleable.TimeDurationPicker_textAppearanceButton, numPadButtons);
+            applyTextAppearance(context, attributes, R.styleable.TimeDurationPicker_textAppearanceButton, flatNumPad);
+            unitTextAppearance = applyTextAppearance(context, attributes, R.styleable.TimeDurationPicker_textAppearanceUnit, unitLabelViews);
 
             applyIcon(attributes, R.styleable.TimeDurationPicker_backspaceIcon, backspaceButton);
             applyIcon(attributes, R.styleable.TimeDurationPicker_clearIcon, clearButton);
@@ -131,6 +221,14 @@ public class TimeDurationPicker extends FrameLayout {
 
         updateUnits();
 
+        input.setOnInputChangedListener(new TimeDurationInput.OnInputChangedListener() {
+            @Override
+            public void onInputChanged(TimeDurationInput input) {
+                if (!showingTick) {
+                    updateHoursMinutesSeconds();
+                }
+            }
+        });
         backspaceButton.setOnClickListener(new OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -153,6 +251,14 @@ public class TimeDurationPicker extends FrameLayout {
         for (Button button : numPadButtons) {
             button.setOnClickListener(numberClickListener);
         }
+        if (flatNumPad != null) {
+            flatNumPad.setOnKeyClickListener(new NumPadView.OnKeyClickListener() {
+                @Override
+                public void onKeyClick(NumPadView view, CharSequence digits) {
+                    onNumberClick(digits);
+                }
+            });
+        }
 
         //
         // init default value
@@ -161,17 +267,28 @@ public class TimeDurationPicker extends FrameLayout {
     }
 
     private void updateUnits() {
-        hoursView.setVisibility(timeUnits == HH_MM_SS || timeUnits == HH_MM ? View.VISIBLE : View.GONE);
-        hoursLabel.setVisibility(timeUnits == HH_MM_SS || timeUnits == HH_MM ? View.VISIBLE : View.GONE);
-        secondsView.setVisibility(timeUnits == HH_MM_SS || timeUnits == MM_SS ? View.VISIBLE : View.GONE);
-        secondsLabel.setVisibility(timeUnits == HH_MM_SS || timeUnits == MM_SS ? View.VISIBLE : View.GONE);
+        updateUnitViews();
+        input.setTimeUnitLayout(timeUnitLayout);
+    }
 
-        input.updateTimeUnits(timeUnits);
+    private void updateUnitViews() {
+        for (int i = 0; i < displayViews.length; ++i) {
+            displayViews[i].setVisibility(View.GONE);
+            unitLabelViews[i].setVisibility(View.GONE);
+        }
+        fieldTexts = new char[timeUnitLayout.getFieldCount()][];
+        for (int field = 0; field < fieldTexts.length; ++field) {
+            final int unit = timeUnitLayout.getUnit(field).ordinal();
+            displayViews[unit].setVisibility(View.VISIBLE);
+            unitLabelViews[unit].setVisibility(View.VISIBLE);
+            fieldTexts[field] = new char[timeUnitLayout.getWidth(field)];
+        }
+        invalidateMeasureCache();
     }
 
     private void applyUnits(TypedArray attrs, int attributeIndex) {
         if (attrs.hasValue(attributeIndex)) {
-            timeUnits = attrs.getInt(attributeIndex, 0);
+            timeUnitLayout = TimeUnitLayout.forTimeUnits(attrs.getInt(attributeIndex, 0));
         }
     }
 
@@ -190,20 +307,110 @@ public class TimeDurationPicker extends FrameLayout {
     /**
      * Sets the current duration.
      * @param millis the duration in milliseconds
+     * @throws IllegalArgumentException if the duration is negative.
      */
     public void setDuration(long millis) {
+        stopTicking();
         input.setDuration(millis);
-        updateHoursMinutesSeconds();
     }
 
     /**
-     * Sets time units to use
-     * @param timeUnits One of {@link #HH_MM_SS}, {@link #HH_MM}, {@link #MM_SS}.
+     * Gets the current duration entered by the user in its packed form. Layouts with a wide days field can hold
+     * durations exceeding {@link PackedDuration#MAX_HOURS}, these are clamped to {@link PackedDuration#MAX}.
+     * @return the duration entered by the user as described by {@link PackedDuration}.
+     */
+    public long getPackedDuration() {
+        return PackedDuration.fromMillisClamped(input.getDuration());
+    }
+
+    /**
+     * Sets the current duration from its packed form.
+     * @param packed the duration as described by {@link PackedDuration}
      */
+    public void setPackedDuration(long packed) {
+        stopTicking();
+        input.setPackedDuration(packed);
+    }
 
+    /**
+     * Sets time units to use
+     * @param timeUnits One of {@link #HH_MM_SS}, {@link #HH_MM}, {@link #MM_SS}, {@link #SS_MS}, {@link #MM_SS_MS},
+     *                  {@link #DD_HH_MM_SS}.
+     */
     public void setTimeUnits(int timeUnits) {
-        this.timeUnits = timeUnits;
-        updateUnits();
+        setTimeUnitLayout(TimeUnitLayout.forTimeUnits(timeUnits));
+    }
+
+    /**
+     * Gets the fields currently used.
+     * @return the units and the number of digits of each field.
+     */
+    public TimeUnitLayout getTimeUnitLayout() {
+        return timeUnitLayout;
+    }
+
+    /**
+     * Sets the fields to use, which allows for other combinations of units and digits than the predefined time units.
+     * @param layout the units and the number of digits of each field
+     */
+    public void setTimeUnitLayout(TimeUnitLayout layout) {
+        if (layout == null)
+            throw new NullPointerException("layout");
+        timeUnitLayout = layout;
+        if (updateDepth > 0) {
+            pendingUnitsUpdate = true;
+        } else {
+            updateUnits();
+            updateDisplay();
+        }
+    }
+
+    /**
+     * Starts a batch of updates. Until the matching call to {@link #endUpdate()} changes of the duration and the time
+     * units are not shown and the duration change listener is not informed. Appearance changes are applied right away,
+     * but the resulting layout pass happens only once anyway.
+     *
+     * Calls may be nested; the changes are applied when the outermost batch ends.
+     */
+    public void beginUpdate() {
+        ++updateDepth;
+    }
+
+    /**
+     * Ends a batch of updates started with {@link #beginUpdate()}. When the outermost batch ends, the time units and the
+     * displayed duration are updated once and the duration change listener is informed at most once.
+     * @throws IllegalStateException if there is no batch to end.
+     */
+    public void endUpdate() {
+        if (updateDepth == 0)
+            throw new IllegalStateException("endUpdate() called without matching beginUpdate()");
+        if (--updateDepth > 0)
+            return;
+
+        if (pendingUnitsUpdate) {
+            pendingUnitsUpdate = false;
+            updateUnits();
+            pendingDisplayUpdate = true;
+        }
+        if (pendingDisplayUpdate) {
+            pendingDisplayUpdate = false;
+            updateDisplay();
+        }
+        if (pendingDurationChange) {
+            pendingDurationChange = false;
+            fireDurationChangeListener();
+        }
+    }
+
+    /**
+     * Ends all batches of updates that are still open and applies their changes, like the outermost call to
+     * {@link #endUpdate()} does.
+     */
+    void endAllUpdates() {
+        if (updateDepth > 0) {
+            updateDepth = 1;
+            endUpdate();
+        }
     }
 
     /**
@@ -214,12 +421,87 @@ public class TimeDurationPicker extends FrameLayout {
         changeListener = listener;
     }
 
+    /**
+     * Starts counting the displayed duration down to zero in real time, turning the picker into a timer. Only the
+     * display is updated while ticking; the duration change listener is not informed. Any input stops ticking.
+     *
+     * The time is taken from a monotonic clock, so the countdown is not affected by changes of the wall clock. While
+     * the picker is not shown, the display is not updated and a finished countdown is reported when the picker is
+     * shown again.
+     */
+    public void startCountdown() {
+        startTicking(-1);
+    }
+
+    /**
+     * Starts counting the displayed duration up in real time, turning the picker into a stopwatch. See
+     * {@link #startCountdown()} for details.
+     */
+    public void startCountUp() {
+        startTicking(1);
+    }
+
+    /**
+     * Stops a countdown or count up, keeping the duration reached.
+     */
+    public void stopTicking() {
+        if (tickDirection != 0) {
+            unscheduleTick();
+            showTick(getTickDuration());
+            tickDirection = 0;
+        }
+    }
+
+    /**
+     * Checks whether a countdown or count up is running.
+     * @return whether the picker is currently ticking.
+     */
+    public boolean isTicking() {
+        return tickDirection != 0;
+    }
+
+    /**
+     * Sets a listener to be informed when a countdown reaches zero.
+     * @param listener the listener to be informed or {@code null} if no one should be informed.
+     */
+    public void setOnCountdownFinishedListener(OnCountdownFinishedListener listener) {
+        countdownFinishedListener = listener;
+    }
+
+    /**
+     * Sets a sink for timings of input handling, display updates, measuring, layouting and listener calls.
+     * @param metrics the metrics to record to or {@code null} to disable metrics, which is the default.
+     */
+    public void setMetrics(PickerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Specifies how changes are delivered to the {@link OnDurationChangedListener}.
+     *
+     * By default the listener is informed synchronously about every change, even if the duration did not change. With
+     * a positive delay the listener is only informed when there was no further change within the delay, which
+     * coalesces bursts of input into a single notification. {@link #DELIVER_ON_FRAME} delivers at most once per frame.
+     * In both coalescing modes the listener is only informed if the duration differs from the last one delivered.
+     * @param delayMillis {@link #DELIVER_IMMEDIATELY}, {@link #DELIVER_ON_FRAME} or the debounce delay in milliseconds
+     */
+    public void setDurationChangeDelivery(long delayMillis) {
+        if (delayMillis < DELIVER_ON_FRAME)
+            throw new IllegalArgumentException("Invalid delivery delay: " + delayMillis);
+        flushDurationChange();
+        changeDeliveryDelay = delayMillis;
+        // the next coalesced change is delivered even if it repeats one delivered before the switch
+        lastDeliveredDuration = Long.MIN_VALUE;
+    }
+
     /**
      * Sets the text appearance for the entered duration (the large numbers in the upper area).
      * @param resId resource id of the style describing the text appearance.
      */
     public void setDisplayTextAppearance(int resId) {
+        displayTextAppearance = resId;
         applyTextAppearance(getContext(), resId, displayViews);
+        invalidateMeasureCache();
     }
 
     /**
@@ -227,7 +509,9 @@ public class TimeDurationPicker extends FrameLayout {
      * @param resId resource id of the style describing the text appearance.
      */
     public void setUnitTextAppearance(int resId) {
+        unitTextAppearance = resId;
         applyTextAppearance(getContext(), resId, unitLabelViews);
+        invalidateMeasureCache();
     }
 
     /**
@@ -235,7 +519,12 @@ public class TimeDurationPicker extends FrameLayout {
      * @param resId resource id of the style describing the text appearance.
      */
     public void setButtonTextAppearance(int resId) {
+        buttonTextAppearance = resId;
         applyTextAppearance(getContext(), resId, numPadButtons);
+        if (flatNumPad != null) {
+            flatNumPad.setTextAppearance(getContext(), resId);
+        }
+        invalidateMeasureCache();
     }
 
     /**
@@ -276,6 +565,65 @@ public class TimeDurationPicker extends FrameLayout {
      */
     public void setNumPadButtonPadding(int padding) {
         applyPadding(padding, numPadButtons);
+        if (flatNumPad != null) {
+            flatNumPad.setKeyPadding(padding);
+        }
+        invalidateMeasureCache();
+    }
+
+    /**
+     * Takes a snapshot of the settings that can be changed after inflation, i.e. the time unit layout, the text
+     * appearances, icons, colors and the number pad button padding.
+     * @return the current settings.
+     * @see #applySettings(Settings)
+     */
+    Settings getSettings() {
+        return new Settings(this);
+    }
+
+    /**
+     * Restores settings taken by {@link #getSettings()}. Only settings that differ from the current ones are applied.
+     * Text appearances and colors that were never set are kept as they are, as there is nothing to go back to.
+     * @param settings the settings to restore
+     */
+    void applySettings(Settings settings) {
+        if (!settings.timeUnitLayout.equals(timeUnitLayout)) {
+            setTimeUnitLayout(settings.timeUnitLayout);
+        }
+        if (settings.displayTextAppearance != 0 && settings.displayTextAppearance != displayTextAppearance) {
+            setDisplayTextAppearance(settings.displayTextAppearance);
+        }
+        if (settings.unitTextAppearance != 0 && settings.unitTextAppearance != unitTextAppearance) {
+            setUnitTextAppearance(settings.unitTextAppearance);
+        }
+        if (settings.buttonTextAppearance != 0 && settings.buttonTextAppearance != buttonTextAppearance) {
+            setButtonTextAppearance(settings.buttonTextAppearance);
+        }
+        if (settings.backspaceIcon != backspaceButton.getDrawable()) {
+            setBackspaceIcon(settings.backspaceIcon);
+        }
+        if (settings.clearIcon != clearButton.getDrawable()) {
+            setClearIcon(settings.clearIcon);
+        }
+        if (settings.separatorColor != null && !settings.separatorColor.equals(getBackgroundColor(separatorView))) {
+            setSeparatorColor(settings.separatorColor);
+        }
+        if (settings.durationDisplayBackgroundColor != null && !settings.durationDisplayBackgroundColor.equals(getBackgroundColor(displayRow))) {
+            setDurationDisplayBackgroundColor(settings.durationDisplayBackgroundColor);
+        }
+        if (settings.numPadButtonPadding != getNumPadButtonPadding()) {
+            setNumPadButtonPadding(settings.numPadButtonPadding);
+        }
+    }
+
+    private int getNumPadButtonPadding() {
+        return flatNumPad != null ? flatNumPad.getKeyPadding() : numPadButtons[0].getPaddingLeft();
+    }
+
+    private static Integer getBackgroundColor(View view) {
+        // setBackgroundColor() changes the color of an existing ColorDrawable, so the color itself needs to be kept
+        final Drawable background = view.getBackground();
+        return background instanceof ColorDrawable ? ((ColorDrawable) background).getColor() : null;
     }
 
     //
@@ -293,11 +641,26 @@ public class TimeDurationPicker extends FrameLayout {
         for (View view : targetViews) view.setPadding(padding, padding, padding, padding);
     }
 
-    private void applyTextAppearance(Context context, TypedArray attrs, int attributeIndex, final TextView[] targetViews) {
+    private void applyKeyPadding(TypedArray attrs, int attributeIndex, NumPadView targetView) {
+        final int padding = attrs.getDimensionPixelSize(attributeIndex, -1);
+        if (targetView != null && padding > -1) {
+            targetView.setKeyPadding(padding);
+        }
+    }
+
+    private void applyTextAppearance(Context context, TypedArray attrs, int attributeIndex, NumPadView targetView) {
+        final int id = attrs.getResourceId(attributeIndex, 0);
+        if (targetView != null && id != 0) {
+            targetView.setTextAppearance(context, id);
+        }
+    }
+
+    private int applyTextAppearance(Context context, TypedArray attrs, int attributeIndex, final TextView[] targetViews) {
         final int id = attrs.getResourceId(attributeIndex, 0);
         if (id != 0) {
             applyTextAppearance(context, id, targetViews);
         }
+        return id;
     }
 
     private void applyTextAppearance(Context context, int resId, final TextView[] targetViews) {
@@ -321,67 +684,344 @@ public class TimeDurationPicker extends FrameLayout {
     private void applyLeftMargin(int margin, View... targetViews) {
         for (View view : targetViews) {
             final LinearLayout.LayoutParams params = (LinearLayout.LayoutParams) view.getLayoutParams();
-            params.setMargins(margin, params.topMargin, params.rightMargin, params.bottomMargin);
-            view.setLayoutParams(params);
+            if (params.leftMargin != margin) {
+                params.setMargins(margin, params.topMargin, params.rightMargin, params.bottomMargin);
+                view.setLayoutParams(params);
+            }
         }
     }
 
+    //
+    // metrics
+    //
+
+    /**
+     * Reads the clock for a metric, but only if metrics are enabled.
+     * @return the start time or {@link #NO_METRIC} if metrics are disabled.
+     */
+    private long startMetric() {
+        return metrics != null ? System.nanoTime() : NO_METRIC;
+    }
+
+    private void recordMetric(int event, long start) {
+        if (metrics != null && start != NO_METRIC) {
+            metrics.record(event, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Starts timing an input. The time is recorded by {@link #finishInputMetric()} as soon as the display shows the
+     * input, so that it does not include the duration change listener.
+     */
+    private void startInputMetric() {
+        inputStart = startMetric();
+    }
+
+    private void finishInputMetric() {
+        if (inputStart != NO_METRIC) {
+            recordMetric(PickerMetrics.EVENT_INPUT, inputStart);
+            inputStart = NO_METRIC;
+        }
+    }
+
+    /**
+     * Drops the timing of an input that did not update the display, e.g. during a batch update.
+     */
+    private void cancelInputMetric() {
+        inputStart = NO_METRIC;
+    }
+
     //
     // event helpers
     //
 
     private void onBackspace() {
+        stopTicking();
+        startInputMetric();
         input.popDigit();
-        updateHoursMinutesSeconds();
+        cancelInputMetric();
     }
 
     private void onClear() {
+        stopTicking();
+        startInputMetric();
         input.clear();
-        updateHoursMinutesSeconds();
+        cancelInputMetric();
     }
 
     private void onNumberClick(final CharSequence digits) {
+        stopTicking();
+        startInputMetric();
         input.pushNumber(digits);
-        updateHoursMinutesSeconds();
+        cancelInputMetric();
     }
 
     private void updateHoursMinutesSeconds() {
-        hoursView.setText(input.getHoursString());
-        minutesView.setText(input.getMinutesString());
-        secondsView.setText(input.getSecondsString());
+        if (updateDepth > 0) {
+            pendingDisplayUpdate = true;
+            pendingDurationChange = true;
+            return;
+        }
+        updateDisplay();
+        finishInputMetric();
         fireDurationChangeListener();
     }
 
+    /**
+     * Rebinds only those display fields whose digits actually changed to avoid needless relayouts. The text buffers
+     * are handed to the views directly, so no strings are created.
+     */
+    private void updateDisplay() {
+        final long start = startMetric();
+        for (int field = 0; field < fieldTexts.length; ++field) {
+            final char[] text = fieldTexts[field];
+            if (input.getFieldDigits(field, text))
+                displayViews[timeUnitLayout.getUnit(field).ordinal()].setText(text, 0, text.length);
+        }
+        recordMetric(PickerMetrics.EVENT_DISPLAY_UPDATE, start);
+    }
+
     private void fireDurationChangeListener() {
-        if (changeListener != null) {
-            changeListener.onDurationChanged(this, input.getDuration());
+        if (changeListener == null)
+            return;
+
+        if (changeDeliveryDelay == DELIVER_IMMEDIATELY) {
+            lastDeliveredDuration = input.getDuration();
+            dispatchDurationChanged(lastDeliveredDuration);
+        } else if (changeDeliveryDelay == DELIVER_ON_FRAME) {
+            if (!changeDeliveryPending) {
+                changeDeliveryPending = true;
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                    if (frameChangeDelivery == null) {
+                        frameChangeDelivery = new FrameRunner(changeDelivery);
+                    }
+                    frameChangeDelivery.schedule();
+                } else {
+                    changeDeliveryHandler.postDelayed(changeDelivery, FALLBACK_FRAME_DELAY);
+                }
+            }
+        } else {
+            changeDeliveryPending = true;
+            changeDeliveryHandler.removeCallbacks(changeDelivery);
+            changeDeliveryHandler.postDelayed(changeDelivery, changeDeliveryDelay);
+        }
+    }
+
+    private void deliverPendingDurationChange() {
+        changeDeliveryPending = false;
+        final long duration = input.getDuration();
+        if (changeListener != null && duration != lastDeliveredDuration) {
+            lastDeliveredDuration = duration;
+            dispatchDurationChanged(duration);
+        }
+    }
+
+    private void dispatchDurationChanged(long duration) {
+        final long start = startMetric();
+        changeListener.onDurationChanged(this, duration);
+        recordMetric(PickerMetrics.EVENT_LISTENER, start);
+    }
+
+    /**
+     * Immediately delivers a change that is waiting for its coalesced delivery.
+     */
+    private void flushDurationChange() {
+        if (changeDeliveryPending) {
+            changeDeliveryHandler.removeCallbacks(changeDelivery);
+            if (frameChangeDelivery != null) {
+                frameChangeDelivery.cancel();
+            }
+            deliverPendingDurationChange();
         }
     }
 
     //
-    // layouting
+    // ticking
     //
 
+    private void startTicking(int direction) {
+        stopTicking();
+        tickDirection = direction;
+        tickStartDuration = input.getDuration();
+        tickStartTime = SystemClock.elapsedRealtime();
+        updateTicking();
+    }
+
+    /**
+     * Ticks while the picker is shown and stops the updates otherwise.
+     */
+    private void updateTicking() {
+        if (tickDirection != 0 && getWindowVisibility() == View.VISIBLE && isShown()) {
+            if (!tickScheduled) {
+                onTick();
+            }
+        } else {
+            unscheduleTick();
+        }
+    }
+
+    /**
+     * Gets the current duration of the countdown or count up, rounded to the least significant unit displayed: a
+     * countdown rounds up, so that zero is shown when it is finished, a count up rounds down.
+     */
+    private long getTickDuration() {
+        final long unit = timeUnitLayout.getUnit(timeUnitLayout.getFieldCount() - 1).getMillis();
+        final long elapsed = SystemClock.elapsedRealtime() - tickStartTime;
+        if (tickDirection < 0) {
+            final long remaining = Math.max(0, tickStartDuration - elapsed);
+            return (remaining + unit - 1) / unit * unit;
+        } else {
+            return (tickStartDuration + elapsed) / unit * unit;
+        }
+    }
+
+    private void onTick() {
+        tickScheduled = false;
+        if (tickDirection == 0)
+            return;
+
+        final long duration = getTickDuration();
+        showTick(duration);
+        if (tickDirection < 0 && duration == 0) {
+            tickDirection = 0;
+            if (countdownFinishedListener != null) {
+                countdownFinishedListener.onCountdownFinished(this);
+            }
+        } else {
+            // wake up when the displayed duration changes next
+            final long unit = timeUnitLayout.getUnit(timeUnitLayout.getFieldCount() - 1).getMillis();
+            final long elapsed = SystemClock.elapsedRealtime() - tickStartTime;
+            final long delay = tickDirection < 0
+                    ? tickStartDuration - elapsed - (duration - unit)
+                    : duration + unit - (tickStartDuration + elapsed);
+            scheduleTick(Math.max(0, delay));
+        }
+    }
+
+    /**
+     * Shows the specified duration without informing the duration change listener. Only the digits that changed
+     * are rebound.
+     */
+    private void showTick(long duration) {
+        showingTick = true;
+        try {
+            input.setDuration(duration);
+        } finally {
+            showingTick = false;
+        }
+        if (updateDepth > 0) {
+            pendingDisplayUpdate = true;
+        } else {
+            updateDisplay();
+        }
+    }
+
+    private void scheduleTick(long delayMillis) {
+        tickScheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (frameTick == null) {
+                frameTick = new FrameRunner(tick);
+            }
+            frameTick.scheduleDelayed(delayMillis);
+        } else {
+            postDelayed(tick, delayMillis);
+        }
+    }
+
+    private void unscheduleTick() {
+        if (tickScheduled) {
+            tickScheduled = false;
+            removeCallbacks(tick);
+            if (frameTick != null) {
+                frameTick.cancel();
+            }
+        }
+    }
+
     @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateTicking();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        flushDurationChange();
+        unscheduleTick();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateTicking();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateTicking();
+    }
+
+    //
+    // layouting
+    //
+
+    /**
+     * Forces the natural sizes of the display and the number pad to be measured again on the next layout pass. Needs
+     * to be called whenever something changes that influences these sizes.
+     */
+    private void invalidateMeasureCache() {
+        measureCacheValid = false;
+    }
+
+    /**
+     * Measures the natural size of the display row and the number pad buttons and adjusts the spacing between the
+     * units. The result only depends on the text appearances, the button padding, the time units and the font scale,
+     * so it is cached until one of them changes.
+     */
+    private void measureNaturalSizes() {
         final int touchableSize = getContext().getResources().getDimensionPixelSize(R.dimen.touchable);
         final int dummyMeasureSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
 
         // set spacing between units
-        hoursView.measure(dummyMeasureSpec, dummyMeasureSpec);
-        final TextView unitLabelView = unitLabelViews[2];
+        final TextView leadingView = displayViews[timeUnitLayout.getUnit(0).ordinal()];
+        leadingView.measure(dummyMeasureSpec, dummyMeasureSpec);
+        final TextView unitLabelView = unitLabelViews[TimeDurationUnit.SECONDS.ordinal()];
         unitLabelView.measure(dummyMeasureSpec, dummyMeasureSpec);
-        final int unitSpacing = Math.max(hoursView.getMeasuredWidth() / 3, (int) (1.2f * unitLabelView.getMeasuredWidth()));
-        applyLeftMargin(unitSpacing, minutesView, secondsView);
+        final int unitSpacing = Math.max(leadingView.getMeasuredWidth() / 3, (int) (1.2f * unitLabelView.getMeasuredWidth()));
+        for (int field = 0; field < timeUnitLayout.getFieldCount(); ++field) {
+            applyLeftMargin(field > 0 ? unitSpacing : 0, displayViews[timeUnitLayout.getUnit(field).ordinal()]);
+        }
 
         // calculate size for display row
         durationView.measure(dummyMeasureSpec, dummyMeasureSpec);
-        final int minDisplayWidth = durationView.getMeasuredWidth() + 2 * touchableSize;
-        final int minDisplayHeight = Math.max(durationView.getMeasuredHeight(), touchableSize);
+        cachedMinDisplayWidth = durationView.getMeasuredWidth() + 2 * touchableSize;
+        cachedMinDisplayHeight = Math.max(durationView.getMeasuredHeight(), touchableSize);
 
         // calculate size for num pad
-        numPadMeasureButton.measure(dummyMeasureSpec, dummyMeasureSpec);
-        final int minNumPadButtonSize = Math.max(Math.max(numPadMeasureButton.getMeasuredHeight(), numPadMeasureButton.getMeasuredWidth()), touchableSize);
+        if (flatNumPad != null) {
+            cachedMinNumPadButtonSize = Math.max(flatNumPad.getNaturalKeySize(), touchableSize);
+        } else {
+            numPadMeasureButton.measure(dummyMeasureSpec, dummyMeasureSpec);
+            cachedMinNumPadButtonSize = Math.max(Math.max(numPadMeasureButton.getMeasuredHeight(), numPadMeasureButton.getMeasuredWidth()), touchableSize);
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final long start = startMetric();
+        final float fontScale = getResources().getConfiguration().fontScale;
+        if (!measureCacheValid || fontScale != cachedFontScale) {
+            measureNaturalSizes();
+            cachedFontScale = fontScale;
+            measureCacheValid = true;
+        }
+        final int minDisplayWidth = cachedMinDisplayWidth;
+        final int minDisplayHeight = cachedMinDisplayHeight;
+
+        // calculate size for num pad
+        final int minNumPadButtonSize = cachedMinNumPadButtonSize;
         final int minNumPadWidth = 3 * minNumPadButtonSize;
         final int minNumPadHeight = 4 * minNumPadButtonSize;
 
@@ -413,10 +1053,12 @@ public class TimeDurationPicker extends FrameLayout {
         final int width = Math.max(displayRowWidth, numPadWidth);
         final int height = displayRowHeight + numPadHeight;
         setMeasuredDimension(width, height);
+        recordMetric(PickerMetrics.EVENT_MEASURE, start);
     }
 
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        final long start = startMetric();
         final int width = right - left;
 
         // layout display row
@@ -431,6 +1073,7 @@ public class TimeDurationPicker extends FrameLayout {
         final int numPadX = (width - numPadWidth) / 2;
         final int numPadY = displayRowHeight;
         numPad.layout(numPadX, numPadY, numPadX + numPadWidth, numPadY + numPadHeight);
+        recordMetric(PickerMetrics.EVENT_LAYOUT, start);
     }
 
     //
@@ -439,7 +1082,15 @@ public class TimeDurationPicker extends FrameLayout {
 
     @Override
     protected Parcelable onSaveInstanceState() {
-        return new SavedState(super.onSaveInstanceState(), input.getInputString());
+        // the digits belong to the layout of the input, which differs from ours while a change is pending in a batch
+        final TimeUnitLayout layout = input.getTimeUnitLayout();
+        final int[] units = new int[layout.getFieldCount()];
+        final int[] widths = new int[units.length];
+        for (int field = 0; field < units.length; ++field) {
+            units[field] = layout.getUnit(field).ordinal();
+            widths[field] = layout.getWidth(field);
+        }
+        return new SavedState(super.onSaveInstanceState(), units, widths, input.getBaseDuration(), input.getDigits(), input.getDigitCount());
     }
 
     @Override
@@ -449,140 +1100,84 @@ public class TimeDurationPicker extends FrameLayout {
 
         final SavedState savedStated = (SavedState) state;
         super.onRestoreInstanceState(savedStated.getSuperState());
-        input.clear();
-        input.pushNumber(savedStated.durationInput);
-        updateHoursMinutesSeconds();
-    }
-
-    /**
-     * Encapsulates the digit input logic and text to duration conversion logic.
-     */
-    private static class TimeDurationString {
-        private int timeUnits;
-        private int maxDigits = 8;
-        private long duration = 0;
-        private final StringBuilder input = new StringBuilder(maxDigits);
-
-        public TimeDurationString() {
-            padWithZeros();
-        }
-
-        private void updateTimeUnits(int timeUnits) {
-            this.timeUnits = timeUnits;
-            setMaxDigits(timeUnits);
+        if (savedStated.units == null) {
+            // state created from an input string, which is replayed on the current layout like before
+            stopTicking();
+            input.clear();
+            input.pushNumber(savedStated.durationInput);
+            return;
         }
-
-        private void setMaxDigits(int timeUnits) {
-            if (timeUnits == TimeDurationPicker.HH_MM_SS)
-                maxDigits = 8;
-            else
-                maxDigits = 6;
-            setDuration(duration);
+        final TimeDurationUnit[] units = new TimeDurationUnit[savedStated.units.length];
+        for (int field = 0; field < units.length; ++field) {
+            units[field] = TimeDurationUnit.values()[savedStated.units[field]];
         }
-
-        public void pushNumber(final CharSequence digits) {
-            for (int i = 0; i < digits.length(); ++i)
-                pushDigit(digits.charAt(i));
-        }
-
-        public void pushDigit(final char digit) {
-            if (!Character.isDigit(digit))
-                throw new IllegalArgumentException("Only numbers are allowed");
-
-            removeLeadingZeros();
-            if (input.length() < maxDigits && (input.length() > 0 || digit != '0')) {
-                input.append(digit);
-            }
-            padWithZeros();
-        }
-
-        public void popDigit() {
-            if (input.length() > 0)
-                input.deleteCharAt(input.length() - 1);
-            padWithZeros();
-        }
-
-        public void clear() {
-            input.setLength(0);
-            padWithZeros();
-        }
-
-        public String getHoursString() {
-            return timeUnits == HH_MM_SS || timeUnits == HH_MM ? input.substring(0, 4) : "0000";
-        }
-
-        public String getMinutesString() {
-            if (timeUnits == HH_MM_SS || timeUnits == HH_MM) return input.substring(4, 6);
-            else if (timeUnits == MM_SS) return input.substring(2, 4);
-            else return "00";
-        }
-
-        public String getSecondsString() {
-            if (timeUnits == HH_MM_SS) return input.substring(6, 8);
-            else if (timeUnits == MM_SS) return input.substring(4, 6);
-            else return "00";
-        }
-
-        public String getInputString() {
-            return input.toString();
-        }
-
-        public long getDuration() {
-            final int hours = Integer.parseInt(getHoursString());
-            final int minutes = Integer.parseInt(getMinutesString());
-            final int seconds = Integer.parseInt(getSecondsString());
-            return TimeDurationUtil.durationOf(hours, minutes, seconds);
+        stopTicking();
+        timeUnitLayout = new TimeUnitLayout(units, savedStated.widths);
+        // the restored layout replaces any layout change deferred by an ongoing batch update
+        pendingUnitsUpdate = false;
+        updateUnitViews();
+        input.restore(timeUnitLayout, savedStated.baseDuration, savedStated.digits, savedStated.digitCount);
+        if (updateDepth > 0) {
+            pendingDisplayUpdate = true;
+        } else {
+            updateDisplay();
         }
+    }
 
-        public void setDuration(long millis) {
-            duration = millis;
-            setDuration(
-                TimeDurationUtil.hoursOf(millis),
-                timeUnits == MM_SS ? TimeDurationUtil.minutesOf(millis) : TimeDurationUtil.minutesInHourOf(millis),
-                TimeDurationUtil.secondsInMinuteOf(millis));
-        }
+    /**
+     * Runs a task on a future frame. Kept in a separate class, as {@link Choreographer} is not available before Jelly
+     * Bean.
+     */
+    private static class FrameRunner implements Choreographer.FrameCallback {
+        private final Runnable delivery;
 
-        private void setDuration(long hours, long minutes, long seconds) {
-            if (hours > 9999 || minutes > 99)
-                setDurationString("9999", "99", "99");
-            else
-                setDurationString(hourStringFragment(hours), stringFragment(minutes), stringFragment(seconds));
+        FrameRunner(Runnable delivery) {
+            this.delivery = delivery;
         }
 
-        private void setDurationString(String hours, String minutes, String seconds) {
-            input.setLength(0);
-            if (timeUnits == HH_MM || timeUnits == HH_MM_SS)
-                input.append(hours);
-            input.append(minutes);
-            if (timeUnits == HH_MM_SS || timeUnits == MM_SS)
-                input.append(seconds);
+        void schedule() {
+            Choreographer.getInstance().postFrameCallback(this);
         }
 
-        private void removeLeadingZeros() {
-            while (input.length() > 0 && input.charAt(0) == '0')
-                input.deleteCharAt(0);
+        void scheduleDelayed(long delayMillis) {
+            Choreographer.getInstance().postFrameCallbackDelayed(this, delayMillis);
         }
 
-        private void padWithZeros() {
-            while (input.length() < maxDigits)
-                input.insert(0, '0');
+        void cancel() {
+            Choreographer.getInstance().removeFrameCallback(this);
         }
 
-        private String hourStringFragment(long value) {
-            if (value < 10) {
-                return "000" + Long.toString(value);
-            }
-            if (value < 100) {
-                return "00" + Long.toString(value);
-            }
-            if (value < 1000) {
-                return "0" + Long.toString(value);
-            }
-            return Long.toString(value);
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            delivery.run();
         }
+    }
 
-        private String stringFragment(long value) {
-            return (value < 10 ? "0" : "") + Long.toString(value);
+    /**
+     * A snapshot of the settings of a picker that can be changed after inflation.
+     * @see #getSettings()
+     */
+    static final class Settings {
+        final TimeUnitLayout timeUnitLayout;
+        final int displayTextAppearance;
+        final int unitTextAppearance;
+        final int buttonTextAppearance;
+        final Drawable backspaceIcon;
+        final Drawable clearIcon;
+        final Integer separatorColor;
+        final Integer durationDisplayBackgroundColor;
+        final int numPadButtonPadding;
+
+        Settings(TimeDurationPicker picker) {
+            timeUnitLayout = picker.timeUnitLayout;
+            displayTextAppearance = picker.displayTextAppearance;
+            unitTextAppearance = picker.unitTextAppearance;
+            buttonTextAppearance = picker.buttonTextAppearance;
+            backspaceIcon = picker.backspaceButton.getDrawable();
+            clearIcon = picker.clearButton.getDrawable();
+            separatorColor = getBackgroundColor(picker.separatorView);
+            durationDisplayBackgroundColor = getBackgroundColor(picker.displayRow);
+            numPadButtonPadding = picker.getNumPadButtonPadding();
         }
     }
 
@@ -591,22 +1186,57 @@ public class TimeDurationPicker extends FrameLayout {
      * {@link View#onSaveInstanceState}.
      */
     public static class SavedState extends BaseSavedState {
+        final int[] units;
+        final int[] widths;
+        final long baseDuration;
+        final long digits;
+        final int digitCount;
+        /** The zero padded digits of a state created by {@link #SavedState(Parcelable, String)}, otherwise {@code null}. */
         final String durationInput;
 
+        public SavedState(Parcelable superState, int[] units, int[] widths, long baseDuration, long digits, int digitCount) {
+            this(superState, units, widths, baseDuration, digits, digitCount, null);
+        }
+
+        /**
+         * Creates a state from the zero padded digits entered, which are pushed again on restore.
+         * @deprecated the picker saves its layout and digits as numbers instead, use
+         * {@link #SavedState(Parcelable, int[], int[], long, long, int)}.
+         */
+        @Deprecated
         public SavedState(Parcelable superState, String durationInput) {
+            this(superState, null, null, 0, 0, 0, durationInput);
+        }
+
+        private SavedState(Parcelable superState, int[] units, int[] widths, long baseDuration, long digits, int digitCount, String durationInput) {
             super(superState);
+            this.units = units;
+            this.widths = widths;
+            this.baseDuration = baseDuration;
+            this.digits = digits;
+            this.digitCount = digitCount;
             this.durationInput = durationInput;
         }
 
         @SuppressWarnings("unused")
         public SavedState(Parcel source) {
             super(source);
+            units = source.createIntArray();
+            widths = source.createIntArray();
+            baseDuration = source.readLong();
+            digits = source.readLong();
+            digitCount = source.readInt();
             durationInput = source.readString();
         }
 
         @Override
         public void writeToParcel(Parcel out, int flags) {
             super.writeToParcel(out, flags);
+            out.writeIntArray(units);
+            out.writeIntArray(widths);
+            out.writeLong(baseDuration);
+            out.writeLong(digits);
+            out.writeInt(digitCount);
             out.writeString(durationInput);
         }
         
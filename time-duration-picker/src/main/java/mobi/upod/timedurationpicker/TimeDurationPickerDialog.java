@@ -5,7 +5,6 @@ import android.content.DialogInterface;
 import android.os.Bundle;
 import android.support.v7.app.AlertDialog;
 import android.view.LayoutInflater;
-import android.view.View;
 
 /**
  * A simple dialog containing a {@link TimeDurationPicker}.
@@ -20,6 +19,8 @@ public class TimeDurationPickerDialog extends AlertDialog implements DialogInter
     private static final String DURATION = "duration";
     private final TimeDurationPicker durationInputView;
     private final OnDurationSetListener durationSetListener;
+    private final TimeDurationPickerPool pickerPool;
+    private boolean pickerReleased = false;
 
     /**
      * The callback used to indicate the user is done entering the duration.
@@ -40,16 +41,36 @@ public class TimeDurationPickerDialog extends AlertDialog implements DialogInter
      * @param duration the initial duration to be shown in the dialog
      */
     public TimeDurationPickerDialog(Context context, OnDurationSetListener listener, long duration) {
+        this(context, listener, duration, null);
+    }
+
+    /**
+     * Creates a time duration picker dialog that takes its picker from a pool instead of inflating it.
+     *
+     * The picker stays with the dialog until the dialog's window has been removed after it has been dismissed, so that
+     * it is still visible while the dialog fades out. Then it is returned to the pool, so such a dialog must not be
+     * shown again after it has been dismissed.
+     * @param context the context for the dialog
+     * @param listener the listener to be informed about entered duration
+     * @param duration the initial duration to be shown in the dialog
+     * @param pool the pool to take the picker from or {@code null} to inflate a new picker
+     */
+    public TimeDurationPickerDialog(Context context, OnDurationSetListener listener, long duration,
+                                    TimeDurationPickerPool pool) {
         super(context);
         durationSetListener = listener;
+        pickerPool = pool;
 
-        final LayoutInflater inflater = LayoutInflater.from(context);
-        final View view = inflater.inflate(R.layout.time_duration_picker_dialog, null);
-        setView(view);
+        if (pool != null) {
+            durationInputView = pool.acquire();
+        } else {
+            final LayoutInflater inflater = LayoutInflater.from(context);
+            durationInputView = (TimeDurationPicker) inflater.inflate(R.layout.time_duration_picker_dialog, null);
+        }
+        setView(durationInputView);
         setButton(BUTTON_POSITIVE, context.getString(android.R.string.ok), this);
         setButton(BUTTON_NEGATIVE, context.getString(android.R.string.cancel), this);
 
-        durationInputView = (TimeDurationPicker) view;
         durationInputView.setDuration(duration);
     }
 
@@ -66,6 +87,21 @@ public class TimeDurationPickerDialog extends AlertDialog implements DialogInter
         durationInputView.setTimeUnits(timeUnits);
     }
 
+    /**
+     * Creates a time duration picker dialog that takes its picker from a pool instead of inflating it.
+     * @param context the context for the dialog
+     * @param listener the listener to be informed about entered duration
+     * @param duration the initial duration to be shown in the dialog
+     * @param timeUnits the units of time to display
+     * @param pool the pool to take the picker from or {@code null} to inflate a new picker
+     * @see #TimeDurationPickerDialog(Context, OnDurationSetListener, long, TimeDurationPickerPool)
+     */
+    public TimeDurationPickerDialog(Context context, OnDurationSetListener listener, long duration, int timeUnits,
+                                    TimeDurationPickerPool pool) {
+        this(context, listener, duration, pool);
+        durationInputView.setTimeUnits(timeUnits);
+    }
+
     /**
      * Gets the current entered duration.
      * @return the current duration in milliseconds.
@@ -100,6 +136,24 @@ public class TimeDurationPickerDialog extends AlertDialog implements DialogInter
         }
     }
 
+    @Override
+    protected void onStart() {
+        if (pickerReleased)
+            throw new IllegalStateException(
+                    "A dialog using a picker pool cannot be shown again after it has been dismissed");
+        super.onStart();
+    }
+
+    @Override
+    public void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // the window is removed only after the dialog has been dismissed, so the picker is not needed anymore
+        if (pickerPool != null && !pickerReleased) {
+            pickerReleased = true;
+            pickerPool.release(durationInputView);
+        }
+    }
+
     @Override
     public Bundle onSaveInstanceState() {
         final Bundle state = super.onSaveInstanceState();
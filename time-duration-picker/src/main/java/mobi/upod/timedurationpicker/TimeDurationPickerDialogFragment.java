@@ -20,7 +20,16 @@ public abstract class TimeDurationPickerDialogFragment
 
     @Override
     public Dialog onCreateDialog(Bundle savedInstanceState) {
-        return new TimeDurationPickerDialog(getActivity(), this, getInitialDuration(), setTimeUnits());
+        return new TimeDurationPickerDialog(getActivity(), this, getInitialDuration(), setTimeUnits(), getPickerPool());
+    }
+
+    /**
+     * The pool to take the dialog's picker from. Override this to return a pool that is kept by your activity if the
+     * dialog is opened frequently.
+     * @return the pool to use or {@code null} to inflate a new picker each time the dialog is created.
+     */
+    protected TimeDurationPickerPool getPickerPool() {
+        return null;
     }
 
     /**
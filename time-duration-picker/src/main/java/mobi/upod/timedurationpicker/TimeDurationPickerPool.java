@@ -0,0 +1,165 @@
+package mobi.upod.timedurationpicker;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import java.util.ArrayDeque;
+
+/**
+ * A pool of ready to use {@link TimeDurationPicker} instances.
+ *
+ * Inflating a picker takes a noticeable amount of time, which adds to the time needed to open a dialog. Dialogs,
+ * dialog fragments and preferences that are opened repeatedly can take their picker from a pool instead and return it
+ * when they are closed. Use {@link #prewarm(int)} to inflate pickers in advance while the main thread is idle or
+ * {@link #prewarmInBackground(int)} to construct them on a background thread.
+ *
+ * The pickers are bound to the context the pool was created with, so a pool should not outlive its activity. The pool
+ * must only be used from the main thread.
+ *
+ * @see TimeDurationPickerDialog
+ * @see TimeDurationPickerPreference#setPickerPool(TimeDurationPickerPool)
+ */
+public class TimeDurationPickerPool {
+    /** Number of pickers kept in a pool by default. */
+    public static final int DEFAULT_MAX_SIZE = 2;
+
+    private final Context context;
+    private final int layoutResId;
+    private final int maxSize;
+    private final ArrayDeque<TimeDurationPicker> pickers;
+    private int pendingPrewarms = 0;
+    private int pendingBackgroundPrewarms = 0;
+    private AsyncTimeDurationPickerInflater asyncInflater = null;
+
+    private final MessageQueue.IdleHandler prewarmHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            if (pendingPrewarms > 0 && pickers.size() < maxSize) {
+                pickers.push(inflate());
+                --pendingPrewarms;
+            } else {
+                pendingPrewarms = 0;
+            }
+            // inflate a single picker per idle phase only, to not block the main thread for too long
+            return pendingPrewarms > 0;
+        }
+    };
+
+    /**
+     * Creates a pool for pickers using the dialog style.
+     * @param context the context to inflate the pickers with
+     */
+    public TimeDurationPickerPool(Context context) {
+        this(context, R.layout.time_duration_picker_dialog, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a pool for pickers inflated from a custom layout.
+     * @param context the context to inflate the pickers with
+     * @param layoutResId layout resource whose root element is a {@link TimeDurationPicker}
+     * @param maxSize the maximum number of pickers kept in this pool
+     */
+    public TimeDurationPickerPool(Context context, int layoutResId, int maxSize) {
+        this.context = context;
+        this.layoutResId = layoutResId;
+        this.maxSize = maxSize;
+        this.pickers = new ArrayDeque<TimeDurationPicker>(maxSize);
+    }
+
+    /**
+     * Inflates the specified number of pickers in advance. Inflation happens on the main thread whenever its message
+     * queue is idle, one picker at a time.
+     * @param count number of pickers to inflate, limited by the maximum size of this pool
+     */
+    public void prewarm(int count) {
+        final boolean scheduled = pendingPrewarms > 0;
+        pendingPrewarms = Math.max(pendingPrewarms, Math.min(count, maxSize) - pickers.size());
+        if (!scheduled && pendingPrewarms > 0) {
+            Looper.myQueue().addIdleHandler(prewarmHandler);
+        }
+    }
+
+    /**
+     * Constructs the specified number of pickers in advance on a background thread. The pickers are added to the pool
+     * on the main thread as soon as they are ready.
+     * @param count number of pickers to construct, limited by the maximum size of this pool
+     * @see AsyncTimeDurationPickerInflater
+     */
+    public void prewarmInBackground(int count) {
+        if (asyncInflater == null) {
+            asyncInflater = new AsyncTimeDurationPickerInflater(context);
+        }
+        final int missing = Math.min(count, maxSize) - pickers.size() - pendingBackgroundPrewarms;
+        for (int i = 0; i < missing; ++i) {
+            ++pendingBackgroundPrewarms;
+            asyncInflater.inflate(layoutResId, new AsyncTimeDurationPickerInflater.OnPickerInflatedListener() {
+                @Override
+                public void onPickerInflated(TimeDurationPicker picker) {
+                    --pendingBackgroundPrewarms;
+                    if (pickers.size() < maxSize) {
+                        pickers.push(recordSettings(picker));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Takes a picker from this pool. If the pool is empty a new picker is inflated.
+     * @return a picker that is not attached to any parent and shows a zero duration.
+     */
+    public TimeDurationPicker acquire() {
+        final TimeDurationPicker picker = pickers.poll();
+        return picker != null ? picker : inflate();
+    }
+
+    /**
+     * Returns a picker to this pool. The picker is detached from its parent, its listeners and metrics are removed,
+     * change events are delivered immediately again, open batch updates are ended and it is reset to a zero duration,
+     * which also stops ticking. The time units, text appearances, icons, colors and button padding are restored to the
+     * ones the picker had when this pool inflated it. If the pool is full, the picker is dropped.
+     * @param picker the picker to return, which must not be used by the caller afterwards.
+     */
+    public void release(TimeDurationPicker picker) {
+        final ViewParent parent = picker.getParent();
+        if (parent instanceof ViewGroup) {
+            ((ViewGroup) parent).removeView(picker);
+        }
+        picker.setOnDurationChangeListener(null);
+        picker.setOnCountdownFinishedListener(null);
+        picker.setDurationChangeDelivery(TimeDurationPicker.DELIVER_IMMEDIATELY);
+        picker.setMetrics(null);
+        picker.endAllUpdates();
+        final Object settings = picker.getTag(R.id.timeDurationPickerPoolSettings);
+        if (settings instanceof TimeDurationPicker.Settings) {
+            picker.applySettings((TimeDurationPicker.Settings) settings);
+        }
+        picker.setDuration(0);
+
+        if (pickers.size() < maxSize && !pickers.contains(picker)) {
+            pickers.push(picker);
+        }
+    }
+
+    /**
+     * Gets the number of pickers currently available in this pool.
+     * @return the number of pooled pickers.
+     */
+    public int size() {
+        return pickers.size();
+    }
+
+    private TimeDurationPicker inflate() {
+        return recordSettings((TimeDurationPicker) LayoutInflater.from(context).inflate(layoutResId, null));
+    }
+
+    private static TimeDurationPicker recordSettings(TimeDurationPicker picker) {
+        // kept with the picker, so that pickers in use do not need to be tracked by the pool
+        picker.setTag(R.id.timeDurationPickerPoolSettings, picker.getSettings());
+        return picker;
+    }
+}
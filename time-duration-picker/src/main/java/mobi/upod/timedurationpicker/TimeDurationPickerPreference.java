@@ -2,12 +2,18 @@ package mobi.upod.timedurationpicker;
 
 import android.app.AlertDialog;
 import android.content.Context;
+import android.content.DialogInterface;
+import android.content.SharedPreferences;
 import android.content.res.TypedArray;
+import android.os.Build;
 import android.preference.DialogPreference;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * A preference that allows the user to pick a time duration using a {@link TimeDurationPicker}.
  * <p>
@@ -16,8 +22,16 @@ import android.view.View;
  * <ol>
  * <li>The {@code android:defaultValue} specifies the default duration in milliseconds.
  * <li>You can use one of the {@code PLACEHOLDER_*} strings in your summary which will be replaced by the duration.
- * For example a summary could look like {@code "Remind me in ${m:ss} minute(s)."}
+ * For example a summary could look like {@code "Remind me in ${m:ss} minute(s)."} Further placeholders can be added
+ * using {@link #addSummaryPlaceholder(String, TimeDurationSummaryTemplate.PlaceholderFormatter)}.
  * </ol>
+ * <p>
+ * The default value is not written to the shared preferences, but only used as long as no duration has been set.
+ * Durations set using {@link #setDuration(long)} are only written when they changed, and the writes of all duration
+ * preferences are collected and applied in a single asynchronous commit after the current main thread message has been
+ * processed. A duration picked in the dialog is applied as soon as the dialog is dismissed. Until then, other readers of
+ * the shared preferences don't see the new duration and change listeners are not informed. Preferences using a
+ * {@code PreferenceDataStore} write to it directly.
  *
  * @see TimeDurationPicker
  * @see TimeDurationPickerDialog
@@ -32,7 +46,12 @@ public class TimeDurationPickerPreference extends DialogPreference {
 
     private long duration = 0;
     private TimeDurationPicker picker = null;
+    private TimeDurationPickerPool pickerPool = null;
+    private TimeDurationFormatCache formatCache = null;
     private String summaryTemplate;
+    private TimeDurationSummaryTemplate compiledSummaryTemplate = null;
+    private final Map<String, TimeDurationSummaryTemplate.PlaceholderFormatter> summaryPlaceholders = new HashMap<String, TimeDurationSummaryTemplate.PlaceholderFormatter>();
+    private final StringBuilder summaryBuilder = new StringBuilder();
 
     public TimeDurationPickerPreference(Context context) {
         this(context, null);
@@ -49,10 +68,13 @@ public class TimeDurationPickerPreference extends DialogPreference {
      * @param duration duration in milliseconds
      */
     public void setDuration(long duration) {
+        final boolean changed = duration != this.duration;
         this.duration = duration;
-        persistLong(duration);
-        notifyDependencyChange(shouldDisableDependents());
-        notifyChanged();
+        persistDuration(duration);
+        if (changed) {
+            notifyDependencyChange(shouldDisableDependents());
+            notifyChanged();
+        }
     }
 
     /**
@@ -71,6 +93,39 @@ public class TimeDurationPickerPreference extends DialogPreference {
         return picker;
     }
 
+    /**
+     * Sets a pool to take the dialog's picker from instead of inflating a new one each time the dialog opens. The
+     * picker is returned to the pool when the dialog is dismissed.
+     * @param pool the pool to use or {@code null} to inflate a new picker each time.
+     */
+    public void setPickerPool(TimeDurationPickerPool pool) {
+        pickerPool = pool;
+    }
+
+    /**
+     * Sets a cache to take the formatted durations of the summary from. Sharing a cache between several preferences
+     * avoids formatting the same durations again and again.
+     * @param cache the cache to use or {@code null} to format the duration each time.
+     */
+    public void setFormatCache(TimeDurationFormatCache cache) {
+        formatCache = cache;
+    }
+
+    /**
+     * Adds a user-defined placeholder to be replaced in the summary.
+     * @param placeholder the placeholder enclosed in <code>${</code> and <code>}</code>, e.g. {@code "${min}"}
+     * @param formatter provides the text to replace the placeholder with
+     */
+    public void addSummaryPlaceholder(String placeholder, TimeDurationSummaryTemplate.PlaceholderFormatter formatter) {
+        if (!placeholder.startsWith("${") || !placeholder.endsWith("}"))
+            throw new IllegalArgumentException("Placeholders must have the form ${...}: " + placeholder);
+        summaryPlaceholders.put(placeholder, formatter);
+        compiledSummaryTemplate = null;
+        if (summaryTemplate != null) {
+            updateDescription();
+        }
+    }
+
     //
     // internal stuff
     //
@@ -79,11 +134,45 @@ public class TimeDurationPickerPreference extends DialogPreference {
         if (summaryTemplate == null) {
             summaryTemplate = getSummary().toString();
         }
-        final String summary = summaryTemplate
-                .replace(PLACEHOLDER_HOURS_MINUTES_SECONDS, TimeDurationUtil.formatHoursMinutesSeconds(duration))
-                .replace(PLACEHOLDER_MINUTES_SECONDS, TimeDurationUtil.formatMinutesSeconds(duration)
-                .replace(PLACEHOLDER_SECONDS, TimeDurationUtil.formatSeconds(duration)));
-        setSummary(summary);
+        if (compiledSummaryTemplate == null) {
+            compiledSummaryTemplate = TimeDurationSummaryTemplate.compile(summaryTemplate, summaryPlaceholders);
+        }
+        summaryBuilder.setLength(0);
+        setSummary(compiledSummaryTemplate.render(duration, formatCache, summaryBuilder).toString());
+    }
+
+    /**
+     * Hands the duration to the {@link PreferenceWriteBatcher} if it changed, or persists it right away if it is not
+     * written to shared preferences.
+     */
+    private void persistDuration(long value) {
+        final SharedPreferences preferences = getBatchedPreferences();
+        if (preferences == null) {
+            persistLong(value);
+        } else if (value != getPersistedLong(~value)) {
+            // unchanged values, including writes still pending, are skipped like persistLong() does
+            PreferenceWriteBatcher.getInstance().putLong(preferences, getKey(), value);
+        }
+    }
+
+    @Override
+    protected long getPersistedLong(long defaultReturnValue) {
+        final SharedPreferences preferences = getBatchedPreferences();
+        final Long pending = preferences != null ? PreferenceWriteBatcher.getInstance().getPendingLong(preferences, getKey()) : null;
+        return pending != null ? pending : super.getPersistedLong(defaultReturnValue);
+    }
+
+    /**
+     * Gets the shared preferences whose writes are batched.
+     * @return the preferences or {@code null} if this preference is not persisted to shared preferences, e.g. because
+     * it uses a data store.
+     */
+    private SharedPreferences getBatchedPreferences() {
+        if (!shouldPersist())
+            return null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && getPreferenceDataStore() != null)
+            return null;
+        return getSharedPreferences();
     }
 
     @Override
@@ -93,8 +182,12 @@ public class TimeDurationPickerPreference extends DialogPreference {
 
     @Override
     protected View onCreateDialogView() {
-        final LayoutInflater inflater = LayoutInflater.from(getContext());
-        picker = initPicker((TimeDurationPicker) inflater.inflate(R.layout.time_duration_picker_dialog, null));
+        if (pickerPool != null) {
+            picker = initPicker(pickerPool.acquire());
+        } else {
+            final LayoutInflater inflater = LayoutInflater.from(getContext());
+            picker = initPicker((TimeDurationPicker) inflater.inflate(R.layout.time_duration_picker_dialog, null));
+        }
         return picker;
     }
 
@@ -125,6 +218,23 @@ public class TimeDurationPickerPreference extends DialogPreference {
         }
     }
 
+    @Override
+    public void onDismiss(DialogInterface dialog) {
+        super.onDismiss(dialog);
+        // the picked duration must be visible to other readers as soon as the dialog is gone
+        PreferenceWriteBatcher.getInstance().flush();
+        if (pickerPool != null && picker != null) {
+            pickerPool.release(picker);
+            picker = null;
+        }
+    }
+
+    @Override
+    public void onActivityDestroy() {
+        PreferenceWriteBatcher.getInstance().flush();
+        super.onActivityDestroy();
+    }
+
     @Override
     protected Object onGetDefaultValue(TypedArray a, int index) {
         return (long) a.getInt(index, 0);
@@ -132,14 +242,11 @@ public class TimeDurationPickerPreference extends DialogPreference {
 
     @Override
     protected void onSetInitialValue(boolean restorePersistedValue, Object defaultValue) {
-        final long duration;
-        if (restorePersistedValue)
-            duration = getPersistedLong(0);
-        else
-            duration = Long.parseLong(defaultValue.toString());
-
-        // need to persist here for default value to work
-        setDuration(duration);
+        final long defaultDuration = defaultValue != null ? Long.parseLong(defaultValue.toString()) : 0;
+
+        // the default is not persisted, so it is used until a duration is set; a write that is still pending counts
+        // as persisted, even if the shared preferences don't contain it yet
+        duration = getPersistedLong(defaultDuration);
         updateDescription();
     }
 }
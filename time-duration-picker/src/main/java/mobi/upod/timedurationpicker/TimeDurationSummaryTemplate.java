@@ -0,0 +1,133 @@
+package mobi.upod.timedurationpicker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A summary text containing duration placeholders like {@code "Remind me in ${m:ss} minute(s)."}, which is parsed once
+ * into literal and placeholder segments, so that rendering it only formats the placeholders actually used.
+ *
+ * Placeholders have the form {@code ${...}}. Besides the built-in {@code PLACEHOLDER_*} strings of
+ * {@link TimeDurationPickerPreference} user-defined placeholders can be provided by a {@link PlaceholderFormatter}.
+ * Unknown placeholders are kept as they are.
+ */
+public class TimeDurationSummaryTemplate {
+    private static final int LITERAL = -2;
+    private static final int CUSTOM = -1;
+
+    /**
+     * Implement this interface to provide the text of a user-defined placeholder.
+     */
+    public interface PlaceholderFormatter {
+        /**
+         * Appends the text the placeholder is replaced with.
+         * @param duration the duration in milliseconds
+         * @param out the builder to append to
+         */
+        void format(long duration, StringBuilder out);
+    }
+
+    /** Either {@link #LITERAL}, {@link #CUSTOM} or one of the {@code TimeDurationUtil.FORMAT_*} constants. */
+    private final int[] kinds;
+    private final String[] literals;
+    private final PlaceholderFormatter[] formatters;
+
+    private TimeDurationSummaryTemplate(int[] kinds, String[] literals, PlaceholderFormatter[] formatters) {
+        this.kinds = kinds;
+        this.literals = literals;
+        this.formatters = formatters;
+    }
+
+    /**
+     * Parses a template supporting the built-in placeholders only.
+     * @param template the template text
+     * @return the compiled template.
+     */
+    public static TimeDurationSummaryTemplate compile(String template) {
+        return compile(template, Collections.<String, PlaceholderFormatter>emptyMap());
+    }
+
+    /**
+     * Parses a template.
+     * @param template the template text
+     * @param placeholders user-defined placeholders (enclosed in <code>${</code> and <code>}</code>) and their formatters. They
+     *                     take precedence over the built-in ones.
+     * @return the compiled template.
+     */
+    public static TimeDurationSummaryTemplate compile(String template, Map<String, PlaceholderFormatter> placeholders) {
+        final List<Integer> kinds = new ArrayList<Integer>();
+        final List<String> literals = new ArrayList<String>();
+        final List<PlaceholderFormatter> formatters = new ArrayList<PlaceholderFormatter>();
+
+        int literalStart = 0;
+        int index = template.indexOf("${");
+        while (index >= 0) {
+            final int end = template.indexOf('}', index + 2);
+            if (end < 0)
+                break;
+
+            final String placeholder = template.substring(index, end + 1);
+            final PlaceholderFormatter formatter = placeholders.get(placeholder);
+            final int kind = formatter != null ? CUSTOM : builtInFormatOf(placeholder);
+            if (kind != LITERAL) {
+                if (index > literalStart) {
+                    kinds.add(LITERAL);
+                    literals.add(template.substring(literalStart, index));
+                    formatters.add(null);
+                }
+                kinds.add(kind);
+                literals.add(null);
+                formatters.add(formatter);
+                literalStart = end + 1;
+                index = template.indexOf("${", literalStart);
+            } else {
+                index = template.indexOf("${", index + 2);
+            }
+        }
+        if (literalStart < template.length()) {
+            kinds.add(LITERAL);
+            literals.add(template.substring(literalStart));
+            formatters.add(null);
+        }
+
+        final int[] kindArray = new int[kinds.size()];
+        for (int i = 0; i < kindArray.length; ++i)
+            kindArray[i] = kinds.get(i);
+        return new TimeDurationSummaryTemplate(
+                kindArray,
+                literals.toArray(new String[literals.size()]),
+                formatters.toArray(new PlaceholderFormatter[formatters.size()]));
+    }
+
+    private static int builtInFormatOf(String placeholder) {
+        if (placeholder.equals(TimeDurationPickerPreference.PLACEHOLDER_HOURS_MINUTES_SECONDS))
+            return TimeDurationUtil.FORMAT_HOURS_MINUTES_SECONDS;
+        if (placeholder.equals(TimeDurationPickerPreference.PLACEHOLDER_MINUTES_SECONDS))
+            return TimeDurationUtil.FORMAT_MINUTES_SECONDS;
+        if (placeholder.equals(TimeDurationPickerPreference.PLACEHOLDER_SECONDS))
+            return TimeDurationUtil.FORMAT_SECONDS;
+        return LITERAL;
+    }
+
+    /**
+     * Appends the template with all placeholders replaced by the specified duration.
+     * @param duration the duration in milliseconds
+     * @param cache the cache to take the built-in formats from or {@code null} to format them each time
+     * @param out the builder to append to
+     * @return the specified builder.
+     */
+    public StringBuilder render(long duration, TimeDurationFormatCache cache, StringBuilder out) {
+        for (int i = 0; i < kinds.length; ++i) {
+            final int kind = kinds[i];
+            if (kind == LITERAL)
+                out.append(literals[i]);
+            else if (kind == CUSTOM)
+                formatters[i].format(duration, out);
+            else
+                out.append(cache != null ? cache.format(duration, kind) : TimeDurationUtil.format(duration, kind));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,254 @@
+package mobi.upod.timedurationpicker;
+
+import android.content.Context;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.AttributeSet;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Guards the rendering cost of {@link TimeDurationPicker}: the number of views it inflates, the layout passes and
+ * {@code requestLayout()} calls caused by a key press, the display fields rebound and the allocations of a key press.
+ *
+ * All budgets are upper bounds, so a change that makes the picker cheaper passes without touching this test. If a
+ * change needs more, raise the budget in the same change, so that the increase is reviewed.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class TimeDurationPickerBudgetTest {
+    /** Views below the picker: the display row with 15 views and the number pad with 17 views. */
+    private static final int VIEW_BUDGET = 32;
+    /** Views below the picker with the flat number pad, which is a single view. */
+    private static final int FLAT_VIEW_BUDGET = 16;
+    /** Calls of {@code requestLayout()} reaching the picker per key press. */
+    private static final int REQUEST_LAYOUT_BUDGET = 1;
+    /** Measure and layout passes of the picker per key press. */
+    private static final int LAYOUT_PASS_BUDGET = 1;
+    /**
+     * Bytes allocated on average by a key press that does not change the display. Robolectric instruments the
+     * framework classes, so this includes some of its own bookkeeping and is a coarse guard against per key press
+     * allocations rather than an exact figure.
+     */
+    private static final int UNCHANGED_KEY_PRESS_ALLOCATION_BUDGET = 64;
+    /** Display fields rebound by a key press: the hours, minutes and seconds fields at most. */
+    private static final int REBIND_BUDGET = 3;
+
+    private Context context;
+    private TimeDurationPicker picker;
+    private int requestLayoutCalls;
+    private final int[] metricCounts = new int[PickerMetrics.EVENT_COUNT];
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(RuntimeEnvironment.application, R.style.Theme_AppCompat_Light);
+        picker = new TimeDurationPicker(context) {
+            @Override
+            public void requestLayout() {
+                ++requestLayoutCalls;
+                super.requestLayout();
+            }
+        };
+        picker.setMetrics(new PickerMetrics() {
+            @Override
+            public void record(int event, long nanos) {
+                ++metricCounts[event];
+            }
+        });
+        layout();
+        resetCounters();
+    }
+
+    @Test
+    public void inflatedViewsStayWithinBudget() {
+        final int views = countDescendants(picker);
+        assertTrue(views + " views inflated", views <= VIEW_BUDGET);
+    }
+
+    @Test
+    public void flatNumPadViewsStayWithinBudget() {
+        final AttributeSet attributes = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.flatNumPad, "true")
+                .build();
+        final int views = countDescendants(new TimeDurationPicker(context, attributes));
+        assertTrue(views + " views inflated", views <= FLAT_VIEW_BUDGET);
+    }
+
+    @Test
+    public void keyPressStaysWithinLayoutBudget() {
+        for (int digit = 1; digit <= 8; ++digit) {
+            pressKey(numPadButton(digit));
+            assertTrue("requestLayout() called " + requestLayoutCalls + " times for key " + digit,
+                    requestLayoutCalls <= REQUEST_LAYOUT_BUDGET);
+            layoutIfRequested();
+            final int measures = metricCounts[PickerMetrics.EVENT_MEASURE];
+            assertTrue(measures + " measure passes for key " + digit, measures <= LAYOUT_PASS_BUDGET);
+            final int layouts = metricCounts[PickerMetrics.EVENT_LAYOUT];
+            assertTrue(layouts + " layout passes for key " + digit, layouts <= LAYOUT_PASS_BUDGET);
+            resetCounters();
+        }
+    }
+
+    @Test
+    public void keyPressWithoutVisibleChangeDoesNotLayout() {
+        // leading zeros are ignored and there is nothing to remove or clear
+        pressKey(numPadButton(0));
+        pressKey(picker.findViewById(R.id.backspace));
+        pressKey(picker.findViewById(R.id.clear));
+        layoutIfRequested();
+        assertEquals(0, requestLayoutCalls);
+        assertEquals(0, metricCounts[PickerMetrics.EVENT_MEASURE]);
+        assertEquals(0, metricCounts[PickerMetrics.EVENT_LAYOUT]);
+    }
+
+    @Test
+    public void keyPressRebindsChangedFieldsOnly() {
+        final int[] rebinds = new int[1];
+        final TextWatcher watcher = new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                ++rebinds[0];
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+            }
+        };
+        for (int id : new int[] { R.id.hours, R.id.minutes, R.id.seconds }) {
+            ((TextView) picker.findViewById(id)).addTextChangedListener(watcher);
+        }
+
+        // 0000:00:01, 0000:00:12: only the seconds change
+        assertRebinds(rebinds, numPadButton(1), 1);
+        assertRebinds(rebinds, numPadButton(2), 1);
+        // 0000:01:23, 0000:12:34, 0001:23:45
+        for (int digit = 3; digit <= 5; ++digit) {
+            assertRebinds(rebinds, numPadButton(digit), REBIND_BUDGET);
+        }
+        // 0000:00:00
+        assertRebinds(rebinds, picker.findViewById(R.id.clear), REBIND_BUDGET);
+        // unchanged
+        assertRebinds(rebinds, picker.findViewById(R.id.clear), 0);
+        assertRebinds(rebinds, numPadButton(0), 0);
+    }
+
+    private static void assertRebinds(int[] rebinds, View key, int budget) {
+        rebinds[0] = 0;
+        pressKey(key);
+        assertTrue(rebinds[0] + " fields rebound, at most " + budget + " expected", rebinds[0] <= budget);
+    }
+
+    @Test
+    public void keyPressWithoutVisibleChangeStaysWithinAllocationBudget() throws Exception {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final Method allocatedBytes = allocatedBytesMethod(threads);
+        Assume.assumeTrue(allocatedBytes != null);
+
+        final View zero = numPadButton(0);
+        final View backspace = picker.findViewById(R.id.backspace);
+        // warm up, so that class loading and compilation do not count
+        for (int i = 0; i < 20000; ++i) {
+            pressKey(zero);
+            pressKey(backspace);
+        }
+
+        final int presses = 20000;
+        final long threadId = Thread.currentThread().getId();
+        final long before = (Long) allocatedBytes.invoke(threads, threadId);
+        for (int i = 0; i < presses / 2; ++i) {
+            pressKey(zero);
+            pressKey(backspace);
+        }
+        final long allocated = (Long) allocatedBytes.invoke(threads, threadId) - before;
+        assertTrue("Allocated " + allocated + " bytes for " + presses + " key presses",
+                allocated <= (long) presses * UNCHANGED_KEY_PRESS_ALLOCATION_BUDGET);
+    }
+
+    //
+    // helpers
+    //
+
+    private View numPadButton(int digit) {
+        final int[] ids = {
+                R.id.numPad0, R.id.numPad1, R.id.numPad2, R.id.numPad3, R.id.numPad4,
+                R.id.numPad5, R.id.numPad6, R.id.numPad7, R.id.numPad8, R.id.numPad9
+        };
+        return picker.findViewById(ids[digit]);
+    }
+
+    /**
+     * Calls the click listener directly, so that only the work of the picker is counted.
+     */
+    private static void pressKey(View key) {
+        key.callOnClick();
+    }
+
+    /**
+     * Measures and lays out the picker like a traversal of the view hierarchy does.
+     */
+    private void layout() {
+        final int unspecified = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        picker.measure(unspecified, unspecified);
+        picker.layout(0, 0, picker.getMeasuredWidth(), picker.getMeasuredHeight());
+    }
+
+    /**
+     * Runs a traversal, if the picker requested one, like the next frame would.
+     */
+    private void layoutIfRequested() {
+        if (picker.isLayoutRequested()) {
+            layout();
+        }
+    }
+
+    private void resetCounters() {
+        requestLayoutCalls = 0;
+        for (int i = 0; i < metricCounts.length; ++i) {
+            metricCounts[i] = 0;
+        }
+    }
+
+    private static int countDescendants(ViewGroup group) {
+        int count = 0;
+        for (int i = 0; i < group.getChildCount(); ++i) {
+            final View child = group.getChildAt(i);
+            ++count;
+            if (child instanceof ViewGroup) {
+                count += countDescendants((ViewGroup) child);
+            }
+        }
+        return count;
+    }
+
+    private static Method allocatedBytesMethod(ThreadMXBean threads) {
+        try {
+            final Method method = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+            return method.getDeclaringClass().isInstance(threads) ? method : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}